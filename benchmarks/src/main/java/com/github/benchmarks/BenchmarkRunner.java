@@ -0,0 +1,27 @@
+package com.github.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks matching the usual JMH command line with the gc profiler on,
+ * results are written as json to jmh-result.json unless -rff is given.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar CompanyMapperBenchmark
+ * </pre>
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+            .parent(commandLineOptions)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON))
+            .result(commandLineOptions.getResult().orElse("jmh-result.json"))
+            .build())
+            .run();
+    }
+}
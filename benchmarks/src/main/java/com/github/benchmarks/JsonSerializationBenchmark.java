@@ -0,0 +1,99 @@
+package com.github.benchmarks;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialization of each module CompanyDto with the json binding it uses, JSON-B for Quarkus and Jackson for Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private Jsonb jsonb;
+
+    private ObjectMapper objectMapper;
+
+    private com.github.quarkus.CompanyDto quarkusCompany;
+
+    private com.github.springboot.dto.CompanyDto springCompany;
+
+    private String quarkusJson;
+
+    private String springJson;
+
+    @Setup
+    public void setup() throws Exception {
+        jsonb = JsonbBuilder.create();
+        // same settings as SpringBootServiceApplication.jacksonCustomizer
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .dateFormat(new StdDateFormat())
+            .build();
+
+        Instant now = Instant.now();
+        quarkusCompany = new com.github.quarkus.CompanyDto();
+        quarkusCompany.setName("Benchmark");
+        quarkusCompany.setCreatedByUser("admin");
+        quarkusCompany.setActivated(true);
+        quarkusCompany.setCreatedDate(now);
+        quarkusCompany.setLastModifiedByUser("admin");
+        quarkusCompany.setLastModifiedDate(now);
+        quarkusJson = jsonb.toJson(quarkusCompany);
+
+        springCompany = com.github.springboot.dto.CompanyDto.builder()
+            .id(new ObjectId().toHexString())
+            .name("Benchmark")
+            .createdByUser("admin")
+            .activated(true)
+            .createdDate(now)
+            .lastModifiedByUser("admin")
+            .lastModifiedDate(now)
+            .build();
+        springJson = objectMapper.writeValueAsString(springCompany);
+    }
+
+    @Benchmark
+    public String jsonbSerialize() {
+        return jsonb.toJson(quarkusCompany);
+    }
+
+    @Benchmark
+    public com.github.quarkus.CompanyDto jsonbDeserialize() {
+        return jsonb.fromJson(quarkusJson, com.github.quarkus.CompanyDto.class);
+    }
+
+    @Benchmark
+    public String jacksonSerialize() throws Exception {
+        return objectMapper.writeValueAsString(springCompany);
+    }
+
+    @Benchmark
+    public com.github.springboot.dto.CompanyDto jacksonDeserialize() throws Exception {
+        return objectMapper.readValue(springJson, com.github.springboot.dto.CompanyDto.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.TimeUnit;
+
+import com.github.common.TokenUtils;
+import com.github.springboot.config.CachingReactiveJwtDecoder;
+import com.github.springboot.config.JwtConfigurationProperties;
+import com.github.springboot.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.jwt.auth.principal.DefaultJWTParser;
+import io.smallrye.jwt.auth.principal.JWTAuthContextInfo;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+/**
+ * Verification of a bearer token as done on every authenticated request, smallrye-jwt for Quarkus,
+ * Nimbus for Spring Boot with and without the verified token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtVerificationBenchmark {
+    private DefaultJWTParser quarkusParser;
+
+    private ReactiveJwtDecoder springDecoder;
+
+    private ReactiveJwtDecoder springCachingDecoder;
+
+    private String quarkusToken;
+
+    private String springToken;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(2048);
+        KeyPair keyPair = kpg.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+
+        com.github.common.AuthorizationDto quarkusAuthorization = new com.github.common.AuthorizationDto();
+        quarkusAuthorization.setUser("user");
+        quarkusAuthorization.setRoles(new String[] {"ROLE_ADMIN"});
+        File keys = Files.createTempDirectory("benchmark-keys").toFile();
+        TokenUtils tokenUtils = TokenUtils.getInstance(new File(keys, "privateKey.pem").getPath(), new File(keys, "publicKey.pem").getPath());
+        quarkusToken = tokenUtils.generateTokenString(keyPair.getPrivate(), "test", quarkusAuthorization);
+        JWTAuthContextInfo contextInfo = new JWTAuthContextInfo(publicKey, "jwt");
+        contextInfo.setRequireIssuer(false);
+        quarkusParser = new DefaultJWTParser(contextInfo);
+
+        springToken = new TokenService(keyPair, new JwtConfigurationProperties())
+            .createToken(new com.github.springboot.dto.AuthorizationDto("user", new String[] {"ROLE_ADMIN"}));
+        springDecoder = NimbusReactiveJwtDecoder.withPublicKey(publicKey).build();
+        springCachingDecoder = new CachingReactiveJwtDecoder(NimbusReactiveJwtDecoder.withPublicKey(publicKey).build(), 10000, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public JsonWebToken quarkusSmallryeJwt() throws Exception {
+        return quarkusParser.parse(quarkusToken);
+    }
+
+    @Benchmark
+    public Jwt springNimbus() {
+        return springDecoder.decode(springToken).block();
+    }
+
+    @Benchmark
+    public Jwt springNimbusCached() {
+        return springCachingDecoder.decode(springToken).block();
+    }
+}
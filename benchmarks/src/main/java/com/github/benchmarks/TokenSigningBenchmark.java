@@ -0,0 +1,102 @@
+package com.github.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.github.common.TokenUtils;
+import com.github.springboot.config.JwtConfigurationProperties;
+import com.github.springboot.service.TokenService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import net.minidev.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Token signing behind POST /api/auth, Quarkus {@link TokenUtils} against Spring Boot {@link TokenService}
+ * and the signer per request the Spring Boot controller used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenSigningBenchmark {
+    private KeyPair keyPair;
+
+    private TokenUtils tokenUtils;
+
+    private TokenService tokenService;
+
+    private com.github.common.AuthorizationDto quarkusAuthorization;
+
+    private com.github.springboot.dto.AuthorizationDto springAuthorization;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(2048);
+        keyPair = kpg.generateKeyPair();
+        tokenService = new TokenService(keyPair, new JwtConfigurationProperties());
+        springAuthorization = new com.github.springboot.dto.AuthorizationDto("user", new String[] {"ROLE_ADMIN"});
+
+        File keys = Files.createTempDirectory("benchmark-keys").toFile();
+        tokenUtils = TokenUtils.getInstance(new File(keys, "privateKey.pem").getPath(), new File(keys, "publicKey.pem").getPath());
+        quarkusAuthorization = new com.github.common.AuthorizationDto();
+        quarkusAuthorization.setUser("user");
+        quarkusAuthorization.setRoles(new String[] {"ROLE_ADMIN"});
+    }
+
+    @Benchmark
+    public String quarkusTokenUtils() throws Exception {
+        return tokenUtils.generateTokenString(quarkusAuthorization);
+    }
+
+    @Benchmark
+    public String springTokenService() throws Exception {
+        return tokenService.createToken(springAuthorization);
+    }
+
+    @Benchmark
+    public String springSignerPerRequest() throws Exception {
+        JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
+            .subject(springAuthorization.getUser())
+            .expirationTime(Date.from(ZonedDateTime.now().plusMinutes(1440).toInstant()))
+            .issueTime(new Date())
+            .notBeforeTime(new Date())
+            .claim("authorities", springAuthorization.getRoles())
+            .claim("scope", "read")
+            .jwtID(UUID.randomUUID().toString())
+            .issuer("jwt")
+            .build();
+        JWSSigner signer = new RSASSASigner(keyPair.getPrivate());
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("kid", "test");
+        jsonObject.put("alg", JWSAlgorithm.RS256.getName());
+        jsonObject.put("typ", "JWT");
+        SignedJWT signedJWT = new SignedJWT(JWSHeader.parse(jsonObject), jwtClaimsSet);
+        signedJWT.sign(signer);
+        return signedJWT.serialize();
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.quarkus;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MapStruct conversions done by {@link CompanyResource} on every read and write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompanyMapperBenchmark {
+    private CompanyResource.CompanyMapper companyMapper;
+
+    private Company company;
+
+    private CompanyDto companyDto;
+
+    @Setup
+    public void setup() {
+        companyMapper = new CompanyResource$CompanyMapperImpl();
+        company = new Company();
+        company.id = new ObjectId();
+        company.name = "Benchmark";
+        company.createdByUser = "admin";
+        company.lastModifiedByUser = "admin";
+        companyDto = companyMapper.toResource(company);
+        companyDto.setCreatedDate(Instant.now());
+    }
+
+    @Benchmark
+    public CompanyDto toResource() {
+        return companyMapper.toResource(company);
+    }
+
+    @Benchmark
+    public Company toModel() {
+        return companyMapper.toModel(companyDto);
+    }
+}
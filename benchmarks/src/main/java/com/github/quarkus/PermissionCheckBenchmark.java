@@ -0,0 +1,90 @@
+package com.github.quarkus;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.SecurityContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Role and ownership checks done by {@link CompanyResource} before returning or deleting a company.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private CompanyResource companyResource;
+
+    private SecurityContext admin;
+
+    private SecurityContext user;
+
+    private Company company;
+
+    @Setup
+    public void setup() {
+        companyResource = new CompanyResource();
+        admin = securityContext("admin", "ROLE_ADMIN");
+        user = securityContext("user", "ROLE_COMPANY_READ", "ROLE_COMPANY_SAVE", "ROLE_COMPANY_DELETE", "ROLE_COMPANY_CREATE");
+        company = new Company();
+        company.name = "Benchmark";
+        company.createdByUser = "user";
+    }
+
+    @Benchmark
+    public boolean hasRoleAdmin() {
+        return companyResource.hasRoleAdmin(admin);
+    }
+
+    @Benchmark
+    public boolean hasRoleAdminWhenNotAdmin() {
+        return companyResource.hasRoleAdmin(user);
+    }
+
+    @Benchmark
+    public boolean hasPermissionToChangeCompany() {
+        return companyResource.hasPermissionToChangeCompany(user).test(company);
+    }
+
+    private static SecurityContext securityContext(String name, String... roles) {
+        Set<String> userRoles = new HashSet<>(Arrays.asList(roles));
+        Principal principal = () -> name;
+        return new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return principal;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return userRoles.contains(role);
+            }
+
+            @Override
+            public boolean isSecure() {
+                return true;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return SecurityContext.BASIC_AUTH;
+            }
+        };
+    }
+}
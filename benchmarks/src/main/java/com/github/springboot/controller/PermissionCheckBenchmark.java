@@ -0,0 +1,54 @@
+package com.github.springboot.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Role check done by {@link CompanyController} on every listing, read, update and delete,
+ * ownership itself is part of the mongo filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private CompanyController companyController;
+
+    private Authentication admin;
+
+    private Authentication user;
+
+    @Setup
+    public void setup() {
+        companyController = new CompanyController(null, null);
+        admin = new TestingAuthenticationToken("admin", "pass", AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        user = new TestingAuthenticationToken("user", "pass",
+            AuthorityUtils.createAuthorityList("ROLE_COMPANY_READ", "ROLE_COMPANY_SAVE", "ROLE_COMPANY_DELETE", "ROLE_COMPANY_CREATE"));
+    }
+
+    @Benchmark
+    public boolean hasRoleAdmin() {
+        return companyController.hasRoleAdmin(admin);
+    }
+
+    @Benchmark
+    public boolean hasRoleAdminWhenNotAdmin() {
+        return companyController.hasRoleAdmin(user);
+    }
+}
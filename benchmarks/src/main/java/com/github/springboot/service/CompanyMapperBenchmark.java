@@ -0,0 +1,60 @@
+package com.github.springboot.service;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.github.springboot.dto.CompanyDto;
+import com.github.springboot.model.Company;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MapStruct conversions done by {@link CompanyServiceImpl} on every read and write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompanyMapperBenchmark {
+    private CompanyServiceImpl.CompanyMapper companyMapper;
+
+    private Company company;
+
+    private CompanyDto companyDto;
+
+    @Setup
+    public void setup() {
+        companyMapper = new CompanyServiceImpl$CompanyMapperImpl();
+        company = Company.builder()
+            .id(new ObjectId().toHexString())
+            .name("Benchmark")
+            .createdByUser("admin")
+            .createdDate(Instant.now())
+            .lastModifiedByUser("admin")
+            .lastModifiedDate(Instant.now())
+            .activated(true)
+            .build();
+        companyDto = companyMapper.map(company);
+    }
+
+    @Benchmark
+    public CompanyDto entityToDto() {
+        return companyMapper.map(company);
+    }
+
+    @Benchmark
+    public Company dtoToEntity() {
+        return companyMapper.dtoToEntity(companyDto);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.jmeteranalyzer;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Markdown report with a column per result, so runs of both services can be read side by side.
+ */
+public class ComparisonReport {
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final List<JMeterResult> results;
+
+    private final long windowMillis;
+
+    public ComparisonReport(List<JMeterResult> results, long windowMillis) {
+        this.results = results;
+        this.windowMillis = windowMillis;
+    }
+
+    public String toMarkdown() {
+        StringBuilder report = new StringBuilder("# JMeter Results").append(NEW_LINE).append(NEW_LINE)
+            .append("Latencies in milliseconds: elapsed is the whole sample, latency is until the first byte, connect is the tcp connection.")
+            .append(NEW_LINE);
+        Set<String> labels = new LinkedHashSet<>();
+        results.forEach(r -> labels.addAll(r.getLabels().keySet()));
+        for (String label : labels) {
+            report.append(NEW_LINE).append("## ").append(label).append(NEW_LINE).append(NEW_LINE);
+            header(report, "");
+            row(report, label, "Samples", s -> String.valueOf(s.getSamples()));
+            row(report, label, "Errors", s -> String.format("%d (%.2f%%)", s.getErrors(), s.getErrorRate()));
+            row(report, label, "Throughput(req/s)", s -> decimal(s.getThroughput()));
+            row(report, label, String.format("Throughput per %ds min / mean / max", windowMillis / 1000), this::windowThroughput);
+            row(report, label, "Elapsed p50 / p90 / p99 / p99.9 / max", s -> percentiles(s.getElapsed()));
+            row(report, label, "Latency p50 / p90 / p99 / p99.9 / max", s -> percentiles(s.getLatency()));
+            row(report, label, "Connect p50 / p90 / p99 / p99.9 / max", s -> percentiles(s.getConnect()));
+            row(report, label, "Elapsed mean / stddev", s -> decimal(s.getElapsed().getMean()) + " / " + decimal(s.getElapsed().getStdDeviation()));
+            row(report, label, "Response bytes min / mean / max", s -> s.getMinBytes() + " / " + decimal(s.getMeanBytes()) + " / " + s.getMaxBytes());
+            row(report, label, "Sent bytes mean", s -> decimal(s.getMeanSentBytes()));
+
+            report.append(NEW_LINE).append(String.format("Throughput(req/s) per %ds window since the first sample", windowMillis / 1000))
+                .append(NEW_LINE).append(NEW_LINE);
+            header(report, "Window");
+            long windows = results.stream()
+                .map(r -> r.getLabels().get(label))
+                .mapToLong(s -> s == null ? 0 : s.getWindowCount())
+                .max()
+                .orElse(0);
+            for (long window = 0; window < windows; window++) {
+                long offset = window;
+                row(report, label, (offset * windowMillis / 1000) + "s", s -> offset < s.getWindowCount() ? decimal(s.getWindowThroughput(offset)) : "-");
+            }
+        }
+        return report.toString();
+    }
+
+    private void header(StringBuilder report, String first) {
+        report.append("| ").append(first).append(" |");
+        results.forEach(r -> report.append(' ').append(r.getName()).append(" |"));
+        report.append(NEW_LINE).append("|---|");
+        results.forEach(r -> report.append("---:|"));
+        report.append(NEW_LINE);
+    }
+
+    private void row(StringBuilder report, String label, String name, Function<LabelStats, String> value) {
+        report.append("| ").append(name).append(" |");
+        for (JMeterResult result : results) {
+            LabelStats stats = result.getLabels().get(label);
+            report.append(' ').append(stats == null ? "-" : value.apply(stats)).append(" |");
+        }
+        report.append(NEW_LINE);
+    }
+
+    private String windowThroughput(LabelStats stats) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        double sum = 0;
+        long windows = stats.getWindowCount();
+        for (long window = 0; window < windows; window++) {
+            double throughput = stats.getWindowThroughput(window);
+            min = Math.min(min, throughput);
+            max = Math.max(max, throughput);
+            sum += throughput;
+        }
+        return windows == 0 ? "-" : decimal(min) + " / " + decimal(sum / windows) + " / " + decimal(max);
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.format("%d / %d / %d / %d / %d", histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+            histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+
+    private static String decimal(double value) {
+        return String.format("%.2f", value);
+    }
+}
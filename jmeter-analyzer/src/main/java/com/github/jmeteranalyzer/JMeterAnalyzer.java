@@ -0,0 +1,84 @@
+package com.github.jmeteranalyzer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compare JMeter csv results side by side, every file is read once with constant memory.
+ * <pre>
+ * java -jar jmeter-analyzer/target/jmeter-analyzer.jar --output=jmeter/report.md \
+ *     quarkus=jmeter/jmeter_test_result_quarkus springboot=jmeter/jmeter_test_result_springboot
+ * </pre>
+ * Without results the ones in the jmeter folder are compared.
+ */
+public class JMeterAnalyzer {
+    static final String USAGE = String.join(System.lineSeparator(),
+        "Usage: java -jar jmeter-analyzer/target/jmeter-analyzer.jar [--window=10s] [--output=report.md] [name=result.csv]...",
+        "",
+        "  --window=10s   time window of the throughput over time",
+        "  --output=      markdown file to write the report to, printed otherwise",
+        "  name=path      jmeter csv result, one column per result in the report",
+        "                 defaults to quarkus=jmeter/jmeter_test_result_quarkus springboot=jmeter/jmeter_test_result_springboot");
+
+    public static void main(String[] args) throws Exception {
+        long windowMillis = 10_000;
+        String output = "";
+        Map<String, Path> inputs = new LinkedHashMap<>();
+        for (String arg : args) {
+            if ("--help".equals(arg)) {
+                System.out.println(USAGE);
+                return;
+            } else if (arg.startsWith("--window=")) {
+                windowMillis = parseWindow(arg.substring("--window=".length()));
+            } else if (arg.startsWith("--output=")) {
+                output = arg.substring("--output=".length());
+            } else if (!arg.startsWith("--") && arg.contains("=")) {
+                inputs.put(arg.substring(0, arg.indexOf('=')), Paths.get(arg.substring(arg.indexOf('=') + 1)));
+            } else {
+                System.err.println(String.format("Invalid argument(%s)", arg));
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+        if (inputs.isEmpty()) {
+            inputs.put("quarkus", Paths.get("jmeter", "jmeter_test_result_quarkus"));
+            inputs.put("springboot", Paths.get("jmeter", "jmeter_test_result_springboot"));
+        }
+
+        List<JMeterResult> results = new ArrayList<>();
+        for (Map.Entry<String, Path> input : inputs.entrySet()) {
+            results.add(JMeterResult.read(input.getKey(), input.getValue(), windowMillis));
+        }
+        String report = new ComparisonReport(results, windowMillis).toMarkdown();
+        if (output.isEmpty()) {
+            System.out.println(report);
+        } else {
+            Files.write(Paths.get(output), report.getBytes(StandardCharsets.UTF_8));
+            System.out.println("Report written to " + output);
+        }
+    }
+
+    static long parseWindow(String value) {
+        String window = value.trim().toLowerCase();
+        long millis;
+        if (window.endsWith("ms")) {
+            millis = Long.parseLong(window.substring(0, window.length() - 2));
+        } else if (window.endsWith("s")) {
+            millis = Long.parseLong(window.substring(0, window.length() - 1)) * 1000;
+        } else if (window.endsWith("m")) {
+            millis = Long.parseLong(window.substring(0, window.length() - 1)) * 60_000;
+        } else {
+            millis = Long.parseLong(window) * 1000;
+        }
+        if (millis <= 0) {
+            throw new IllegalArgumentException("window must be greater than 0");
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.jmeteranalyzer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics per label of one JMeter csv result file, read in a single pass.
+ * Columns are found by the header so any JMeter csv configuration with the default fields works.
+ */
+public class JMeterResult {
+    public static final String TOTAL = "TOTAL";
+
+    private static final String TIME_STAMP = "timeStamp";
+
+    private static final String ELAPSED = "elapsed";
+
+    private static final String LABEL = "label";
+
+    private static final String SUCCESS = "success";
+
+    private static final String BYTES = "bytes";
+
+    private static final String SENT_BYTES = "sentBytes";
+
+    private static final String LATENCY = "Latency";
+
+    private static final String CONNECT = "Connect";
+
+    private final String name;
+
+    private final Map<String, LabelStats> labels = new LinkedHashMap<>();
+
+    private final long windowMillis;
+
+    public JMeterResult(String name, long windowMillis) {
+        this.name = name;
+        this.windowMillis = windowMillis;
+        labels.put(TOTAL, new LabelStats(windowMillis));
+    }
+
+    public static JMeterResult read(String name, Path path, long windowMillis) throws IOException {
+        JMeterResult result = new JMeterResult(name, windowMillis);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            result.read(reader);
+        }
+        return result;
+    }
+
+    void read(Reader reader) throws IOException {
+        CsvReader csvReader = new CsvReader(reader);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        int timeStamp = column(columns, TIME_STAMP);
+        int elapsed = column(columns, ELAPSED);
+        int label = column(columns, LABEL);
+        int success = column(columns, SUCCESS);
+        int bytes = columns.getOrDefault(BYTES, -1);
+        int sentBytes = columns.getOrDefault(SENT_BYTES, -1);
+        int latency = columns.getOrDefault(LATENCY, -1);
+        int connect = columns.getOrDefault(CONNECT, -1);
+
+        long line = 1;
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            line++;
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            if (record.size() < header.size()) {
+                throw new IOException(String.format("%s: line(%d) has %d fields, header has %d", name, line, record.size(), header.size()));
+            }
+            try {
+                long start = Long.parseLong(record.get(timeStamp));
+                long elapsedMillis = Long.parseLong(record.get(elapsed));
+                long latencyMillis = number(record, latency);
+                long connectMillis = number(record, connect);
+                boolean ok = Boolean.parseBoolean(record.get(success));
+                long responseBytes = number(record, bytes);
+                long requestBytes = number(record, sentBytes);
+                labels.computeIfAbsent(record.get(label), l -> new LabelStats(windowMillis))
+                    .add(start, elapsedMillis, latencyMillis, connectMillis, ok, responseBytes, requestBytes);
+                labels.get(TOTAL).add(start, elapsedMillis, latencyMillis, connectMillis, ok, responseBytes, requestBytes);
+            } catch (NumberFormatException e) {
+                throw new IOException(String.format("%s: line(%d) %s, timeStamp must be in milliseconds", name, line, e.getMessage()), e);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return stats per label in the order they were first seen, {@link #TOTAL} first
+     */
+    public Map<String, LabelStats> getLabels() {
+        return labels;
+    }
+
+    private static int column(Map<String, Integer> columns, String name) throws IOException {
+        Integer index = columns.get(name);
+        if (index == null) {
+            throw new IOException(String.format("Column(%s) not found in the csv header", name));
+        }
+        return index;
+    }
+
+    private static long number(List<String> record, int column) {
+        if (column < 0 || record.get(column).isEmpty()) {
+            return 0;
+        }
+        return Long.parseLong(record.get(column));
+    }
+}
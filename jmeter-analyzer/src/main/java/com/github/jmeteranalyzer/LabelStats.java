@@ -0,0 +1,130 @@
+package com.github.jmeteranalyzer;
+
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Statistics of the samples of one label, histograms are in milliseconds so memory does not grow with the samples.
+ */
+public class LabelStats {
+    private final Histogram elapsed = new Histogram(3);
+
+    private final Histogram latency = new Histogram(3);
+
+    private final Histogram connect = new Histogram(3);
+
+    /** samples per time window, grows with the duration of the test only */
+    private final TreeMap<Long, Long> windows = new TreeMap<>();
+
+    private final long windowMillis;
+
+    private long samples;
+
+    private long errors;
+
+    private long bytes;
+
+    private long minBytes = Long.MAX_VALUE;
+
+    private long maxBytes;
+
+    private long sentBytes;
+
+    private long firstStart = Long.MAX_VALUE;
+
+    private long lastEnd = Long.MIN_VALUE;
+
+    public LabelStats(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void add(long timeStamp, long elapsedMillis, long latencyMillis, long connectMillis, boolean success,
+                    long responseBytes, long requestBytes) {
+        samples++;
+        if (!success) {
+            errors++;
+        }
+        elapsed.recordValue(Math.max(elapsedMillis, 0));
+        latency.recordValue(Math.max(latencyMillis, 0));
+        connect.recordValue(Math.max(connectMillis, 0));
+        bytes += responseBytes;
+        minBytes = Math.min(minBytes, responseBytes);
+        maxBytes = Math.max(maxBytes, responseBytes);
+        sentBytes += requestBytes;
+        firstStart = Math.min(firstStart, timeStamp);
+        lastEnd = Math.max(lastEnd, timeStamp + elapsedMillis);
+        windows.merge(Math.floorDiv(timeStamp, windowMillis), 1L, Long::sum);
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRate() {
+        return samples == 0 ? 0 : errors * 100.0 / samples;
+    }
+
+    /**
+     * @return samples per second between the start of the first sample and the end of the last one
+     */
+    public double getThroughput() {
+        long duration = lastEnd - firstStart;
+        return duration <= 0 ? samples : samples * 1000.0 / duration;
+    }
+
+    public long getFirstStart() {
+        return firstStart;
+    }
+
+    public Histogram getElapsed() {
+        return elapsed;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getConnect() {
+        return connect;
+    }
+
+    public double getMeanBytes() {
+        return samples == 0 ? 0 : (double) bytes / samples;
+    }
+
+    public long getMinBytes() {
+        return samples == 0 ? 0 : minBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public double getMeanSentBytes() {
+        return samples == 0 ? 0 : (double) sentBytes / samples;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * @param offset windows since the first one
+     * @return samples per second in that window, windows without samples count as 0
+     */
+    public double getWindowThroughput(long offset) {
+        if (windows.isEmpty()) {
+            return 0;
+        }
+        return windows.getOrDefault(windows.firstKey() + offset, 0L) * 1000.0 / windowMillis;
+    }
+
+    public long getWindowCount() {
+        return windows.isEmpty() ? 0 : windows.lastKey() - windows.firstKey() + 1;
+    }
+}
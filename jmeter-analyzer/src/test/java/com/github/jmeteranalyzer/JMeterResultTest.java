@@ -0,0 +1,60 @@
+package com.github.jmeteranalyzer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JMeterResultTest {
+    private static final String CSV = String.join("\n",
+        "timeStamp,elapsed,label,responseCode,responseMessage,threadName,dataType,success,failureMessage,bytes,sentBytes,grpThreads,allThreads,URL,Latency,IdleTime,Connect",
+        "1000,100,GET,200,OK,Thread Group 1-1,text,true,,2000,1000,1,1,http://0.0.0.0/api/companies/,90,0,10",
+        "2000,300,GET,503,Service Unavailable,Thread Group 1-2,text,false,\"Error, \"\"unavailable\"\"\nsecond line\",100,1000,1,1,http://0.0.0.0/api/companies/,300,0,20",
+        "12000,50,POST,201,Created,Thread Group 1-3,text,true,,400,1100,1,1,http://0.0.0.0/api/companies/,40,0,0",
+        "");
+
+    @Test
+    @DisplayName("Test - When reading a jmeter csv should compute stats per label and total")
+    public void shouldComputeStatsPerLabel() throws IOException {
+        JMeterResult result = new JMeterResult("quarkus", 10_000);
+        result.read(new StringReader(CSV));
+
+        assertThat(result.getLabels()).containsOnlyKeys(JMeterResult.TOTAL, "GET", "POST");
+        LabelStats get = result.getLabels().get("GET");
+        assertThat(get.getSamples()).isEqualTo(2);
+        assertThat(get.getErrors()).isEqualTo(1);
+        assertThat(get.getErrorRate()).isEqualTo(50.0);
+        assertThat(get.getElapsed().getMaxValue()).isEqualTo(300);
+        assertThat(get.getLatency().getValueAtPercentile(50)).isEqualTo(90);
+        assertThat(get.getConnect().getMaxValue()).isEqualTo(20);
+        assertThat(get.getMinBytes()).isEqualTo(100);
+        assertThat(get.getMaxBytes()).isEqualTo(2000);
+        assertThat(get.getThroughput()).isEqualTo(2 * 1000.0 / 1300);
+
+        LabelStats total = result.getLabels().get(JMeterResult.TOTAL);
+        assertThat(total.getSamples()).isEqualTo(3);
+        assertThat(total.getWindowCount()).isEqualTo(2);
+        assertThat(total.getWindowThroughput(0)).isEqualTo(0.2);
+        assertThat(total.getWindowThroughput(1)).isEqualTo(0.1);
+
+        String report = new ComparisonReport(Arrays.asList(result, result), 10_000).toMarkdown();
+        assertThat(report).contains("## GET", "| Errors | 1 (50.00%) | 1 (50.00%) |");
+    }
+
+    @Test
+    @DisplayName("Test - When a csv has not the jmeter header should fail")
+    public void shouldFailWithoutJMeterHeader() {
+        JMeterResult result = new JMeterResult("quarkus", 10_000);
+
+        assertThatThrownBy(() -> result.read(new StringReader("a,b\n1,2\n")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("timeStamp");
+        assertThat(Collections.singletonList(result.getLabels().get(JMeterResult.TOTAL).getSamples())).containsExactly(0L);
+    }
+}
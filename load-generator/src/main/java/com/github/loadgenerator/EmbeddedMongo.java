@@ -0,0 +1,44 @@
+package com.github.loadgenerator;
+
+import java.io.IOException;
+
+import de.flapdoodle.embed.mongo.Command;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.config.RuntimeConfigBuilder;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.config.io.ProcessOutput;
+import de.flapdoodle.embed.process.runtime.Network;
+
+/**
+ * Mongod downloaded and started by flapdoodle, the same one the tests of both services use.
+ */
+public class EmbeddedMongo implements AutoCloseable {
+    private final MongodExecutable executable;
+
+    private final int port;
+
+    public EmbeddedMongo() throws IOException {
+        port = Network.getFreeServerPort();
+        MongodStarter starter = MongodStarter.getInstance(new RuntimeConfigBuilder()
+            .defaults(Command.MongoD)
+            .processOutput(ProcessOutput.getDefaultInstanceSilent())
+            .build());
+        executable = starter.prepare(new MongodConfigBuilder()
+            .version(Version.Main.V4_0)
+            .net(new Net(port, Network.localhostIsIPv6()))
+            .build());
+        executable.start();
+    }
+
+    public String getUri(String database) {
+        return String.format("mongodb://localhost:%d/%s", port, database);
+    }
+
+    @Override
+    public void close() {
+        executable.stop();
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.loadgenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Run the same constant arrival rate mix of list, get, create, update and delete against each service, one after the
+ * other, and print the latency percentiles per endpoint.
+ * <pre>
+ * mvn clean install -DskipTests -Dquarkus.profile=auth
+ * java -jar load-generator/target/load-generator.jar --rate=200 --duration=60s
+ * </pre>
+ * Services without an url are started from their jar against an embedded mongodb, a database per service.
+ */
+public class LoadGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.println(LoadGeneratorOptions.USAGE);
+            return;
+        }
+        LoadGeneratorOptions options;
+        try {
+            options = new LoadGeneratorOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadGeneratorOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        LoadReport report = new LoadReport(options);
+        EmbeddedMongo embeddedMongo = null;
+        try {
+            for (String target : options.getTargets()) {
+                if (!"spring".equals(target) && !"quarkus".equals(target)) {
+                    throw new IllegalArgumentException(String.format("Unknown target(%s), expected spring or quarkus", target));
+                }
+                String mongodbUri = options.getMongodbUri();
+                if (options.getUrl(target).isEmpty() && mongodbUri.isEmpty()) {
+                    if (embeddedMongo == null) {
+                        embeddedMongo = new EmbeddedMongo();
+                    }
+                    mongodbUri = embeddedMongo.getUri(target);
+                }
+                report.add(target, run(target, options, mongodbUri));
+            }
+        } finally {
+            if (embeddedMongo != null) {
+                embeddedMongo.close();
+            }
+        }
+
+        String markdown = report.toMarkdown();
+        System.out.println(markdown);
+        if (!options.getReport().isEmpty()) {
+            Files.write(Paths.get(options.getReport()), markdown.getBytes(StandardCharsets.UTF_8));
+            log.info("Report written to {}", options.getReport());
+        }
+    }
+
+    private static Map<Operation, OperationStats> run(String target, LoadGeneratorOptions options, String mongodbUri) throws Exception {
+        ServiceProcess service = null;
+        String url = options.getUrl(target);
+        try {
+            if (url.isEmpty()) {
+                service = ServiceProcess.start(target, options, mongodbUri);
+                url = service.getUrl();
+            }
+            LoadRun loadRun = new LoadRun(url, options);
+            try {
+                if (service != null) {
+                    service.awaitStarted(loadRun);
+                }
+                loadRun.prepare();
+                log.info("Running {} requests/s against {}({}) for {}s after {}s of warmup", options.getRate(), target, url,
+                    options.getDuration().getSeconds(), options.getWarmup().getSeconds());
+                return loadRun.run();
+            } finally {
+                loadRun.close();
+            }
+        } finally {
+            if (service != null) {
+                service.close();
+            }
+        }
+    }
+}
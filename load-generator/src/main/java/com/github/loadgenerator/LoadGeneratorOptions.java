@@ -0,0 +1,154 @@
+package com.github.loadgenerator;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+public class LoadGeneratorOptions {
+    static final String USAGE = String.join(System.lineSeparator(),
+        "Usage: java -jar load-generator/target/load-generator.jar [--name=value]...",
+        "",
+        "  --targets=spring,quarkus       services to run the load against, one after the other",
+        "  --spring-url=                  url of a running spring-boot service, otherwise --spring-jar is started",
+        "  --spring-jar=spring-boot/target/spring-boot-1.0-SNAPSHOT.jar",
+        "  --quarkus-url=                 url of a running quarkus service, otherwise --quarkus-jar is started",
+        "  --quarkus-jar=quarkus/target/quarkus-1.0-SNAPSHOT-runner.jar (build it with -Dquarkus.profile=auth)",
+        "  --app-jvm-args=                jvm arguments for the started services, e.g. -Xmx256m",
+        "  --mongodb-uri=                 mongodb used by the started services, otherwise an embedded one is started",
+        "  --rate=200                     requests per second, sent at a constant rate whatever the response times are",
+        "  --warmup=15s                   time running the load before recording",
+        "  --duration=60s                 time recording",
+        "  --mix=list:20,get:45,create:15,update:15,delete:5",
+        "  --users=20                     users minting their own token, picked with a zipf distribution",
+        "  --companies-per-user=20        companies created per user before the run, picked with a zipf distribution",
+        "  --zipf-exponent=1.0            skew of users and ids, 0 is uniform",
+        "  --max-in-flight=1000           requests above it are dropped instead of queued and recorded at the timeout",
+        "  --timeout=10s                  response timeout",
+        "  --seed=42                      seed of the random choices so runs are repeatable",
+        "  --report=                      also write the report as markdown to this file");
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public LoadGeneratorOptions(String... args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException(String.format("Invalid argument(%s), expected --name=value", arg));
+            }
+            int index = arg.indexOf('=');
+            values.put(arg.substring(2, index), arg.substring(index + 1));
+        }
+    }
+
+    public Set<String> getTargets() {
+        return Arrays.stream(get("targets", "spring,quarkus").split(","))
+            .map(String::trim)
+            .filter(t -> !t.isEmpty())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    public String getUrl(String target) {
+        return get(target + "-url", "");
+    }
+
+    public String getJar(String target) {
+        return get(target + "-jar", "spring".equals(target) ? "spring-boot/target/spring-boot-1.0-SNAPSHOT.jar" :
+            "quarkus/target/quarkus-1.0-SNAPSHOT-runner.jar");
+    }
+
+    public List<String> getAppJvmArgs() {
+        return Arrays.stream(get("app-jvm-args", "").split(" "))
+            .filter(a -> !a.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    public String getMongodbUri() {
+        return get("mongodb-uri", "");
+    }
+
+    public int getRate() {
+        return positive("rate", Integer.parseInt(get("rate", "200")));
+    }
+
+    public Duration getWarmup() {
+        return parseDuration(get("warmup", "15s"));
+    }
+
+    public Duration getDuration() {
+        return parseDuration(get("duration", "60s"));
+    }
+
+    public Map<Operation, Integer> getMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String weight : get("mix", "list:20,get:45,create:15,update:15,delete:5").split(",")) {
+            String[] parts = weight.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(String.format("Invalid mix(%s), expected operation:weight", weight));
+            }
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix must have at least one positive weight");
+        }
+        return mix;
+    }
+
+    public int getUsers() {
+        return positive("users", Integer.parseInt(get("users", "20")));
+    }
+
+    public int getCompaniesPerUser() {
+        return positive("companies-per-user", Integer.parseInt(get("companies-per-user", "20")));
+    }
+
+    public double getZipfExponent() {
+        return Double.parseDouble(get("zipf-exponent", "1.0"));
+    }
+
+    public int getMaxInFlight() {
+        return positive("max-in-flight", Integer.parseInt(get("max-in-flight", "1000")));
+    }
+
+    public Duration getTimeout() {
+        return parseDuration(get("timeout", "10s"));
+    }
+
+    public long getSeed() {
+        return Long.parseLong(get("seed", "42"));
+    }
+
+    public String getReport() {
+        return get("report", "");
+    }
+
+    private String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    private static int positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(String.format("%s must be greater than 0", name));
+        }
+        return value;
+    }
+
+    static Duration parseDuration(String value) {
+        String duration = value.trim().toLowerCase();
+        if (duration.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(duration.substring(0, duration.length() - 2)));
+        } else if (duration.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(duration.substring(0, duration.length() - 1)));
+        } else if (duration.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(duration.substring(0, duration.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(duration));
+    }
+}
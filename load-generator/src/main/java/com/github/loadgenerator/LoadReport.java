@@ -0,0 +1,59 @@
+package com.github.loadgenerator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Percentiles per endpoint of every service as markdown tables, latencies in milliseconds.
+ */
+public class LoadReport {
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final LoadGeneratorOptions options;
+
+    private final Map<String, Map<Operation, OperationStats>> results = new LinkedHashMap<>();
+
+    public LoadReport(LoadGeneratorOptions options) {
+        this.options = options;
+    }
+
+    public void add(String target, Map<Operation, OperationStats> stats) {
+        results.put(target, stats);
+    }
+
+    public String toMarkdown() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("# Load test - %d requests/s during %ds after %ds of warmup, %d users, zipf exponent %s%n",
+            options.getRate(), options.getDuration().getSeconds(), options.getWarmup().getSeconds(), options.getUsers(),
+            options.getZipfExponent()));
+        results.forEach((target, stats) -> {
+            report.append(NEW_LINE).append("## ").append(target).append(NEW_LINE).append(NEW_LINE)
+                .append("Response time(from the scheduled send time, corrected for coordinated omission, dropped requests count as the timeout)").append(NEW_LINE)
+                .append(NEW_LINE)
+                .append("| Endpoint | Requests | Errors | Dropped | Skipped | p50 | p99 | p99.9 | max |").append(NEW_LINE)
+                .append("|---|---:|---:|---:|---:|---:|---:|---:|---:|").append(NEW_LINE);
+            stats.forEach((operation, s) -> report.append(String.format("| %s | %d | %d | %d | %d | %s |%n",
+                operation.getEndpoint(), s.getResponseTime().getTotalCount(), s.getErrors(), s.getDropped(), s.getSkipped(),
+                percentiles(s.getResponseTime()))));
+            report.append(NEW_LINE)
+                .append("Service time(from the actual send time, what a closed model tool would report)").append(NEW_LINE)
+                .append(NEW_LINE)
+                .append("| Endpoint | p50 | p99 | p99.9 | max |").append(NEW_LINE)
+                .append("|---|---:|---:|---:|---:|").append(NEW_LINE);
+            stats.forEach((operation, s) -> report.append(String.format("| %s | %s |%n",
+                operation.getEndpoint(), percentiles(s.getServiceTime()))));
+        });
+        return report.toString();
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.join(" | ", millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+            millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
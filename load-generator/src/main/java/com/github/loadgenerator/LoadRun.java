@@ -0,0 +1,269 @@
+package com.github.loadgenerator;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Constant arrival rate run against one service.
+ * <p>
+ * Requests are sent at the scheduled times whatever the response times are(open model), so latencies are measured from
+ * the scheduled time. Users and ids are picked with a zipf distribution from a seeded random, so the same options give
+ * the same sequence of requests to both services.
+ */
+public class LoadRun {
+    private static final Logger log = LoggerFactory.getLogger(LoadRun.class);
+
+    private static final String[] ROLES = {"ROLE_COMPANY_READ", "ROLE_COMPANY_CREATE", "ROLE_COMPANY_SAVE", "ROLE_COMPANY_DELETE"};
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final int PREPARE_CONCURRENCY = 16;
+
+    private final LoadGeneratorOptions options;
+
+    private final WebClient client;
+
+    private final ConnectionProvider connectionProvider;
+
+    private List<User> users = Collections.emptyList();
+
+    public LoadRun(String baseUrl, LoadGeneratorOptions options) {
+        this.options = options;
+        this.connectionProvider = ConnectionProvider.builder("load-generator")
+            .maxConnections(options.getMaxInFlight())
+            .pendingAcquireMaxCount(-1)
+            .build();
+        this.client = WebClient.builder()
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+            .build();
+    }
+
+    /**
+     * Mint a token for every user and create the companies get and update are sent to.
+     */
+    public void prepare() {
+        users = Flux.range(0, options.getUsers())
+            .map(i -> String.format("load-user-%d@gmail.com", i))
+            .flatMapSequential(u -> mintToken(u).timeout(options.getTimeout()), PREPARE_CONCURRENCY)
+            .collectList()
+            .block();
+        for (User user : users) {
+            user.ids = Flux.range(0, options.getCompaniesPerUser())
+                .flatMapSequential(i -> client.post().uri("/api/companies")
+                    .header(HttpHeaders.AUTHORIZATION, user.token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(company(String.format("load-%s-%d", user.name, i)))
+                    .exchange()
+                    .flatMap(r -> r.releaseBody().then(Mono.justOrEmpty(createdId(r)))
+                        .switchIfEmpty(Mono.error(new IllegalStateException(
+                            String.format("Could not create company for user(%s), status(%d)", user.name, r.rawStatusCode())))))
+                    .timeout(options.getTimeout()),
+                    PREPARE_CONCURRENCY)
+                .collectList()
+                .block();
+        }
+        log.info("Created {} companies for {} users", options.getCompaniesPerUser() * users.size(), users.size());
+    }
+
+    Mono<User> mintToken(String user) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("user", user);
+        body.put("roles", ROLES);
+        return client.post().uri("/api/auth")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(body)
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .map(json -> new User(user, json.get("token").asText()));
+    }
+
+    public Map<Operation, OperationStats> run() {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        Map<Operation, Integer> mix = options.getMix();
+        List<Operation> operations = new ArrayList<>(mix.keySet());
+        int[] weights = operations.stream().mapToInt(mix::get).toArray();
+        int totalWeight = IntStream.of(weights).sum();
+        operations.forEach(o -> stats.put(o, new OperationStats()));
+
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+        ZipfDistribution userDistribution = new ZipfDistribution(users.size(), options.getZipfExponent());
+        ZipfDistribution idDistribution = new ZipfDistribution(options.getCompaniesPerUser(), options.getZipfExponent());
+        AtomicInteger inFlight = new AtomicInteger();
+        int maxInFlight = options.getMaxInFlight();
+        Duration timeout = options.getTimeout();
+        long rate = options.getRate();
+
+        long start = System.nanoTime();
+        long recordStart = start + options.getWarmup().toNanos();
+        long end = recordStart + options.getDuration().toNanos();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * TimeUnit.SECONDS.toNanos(1) / rate;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = operations.get(pick(weights, random.nextInt(totalWeight)));
+            User user = users.get(userDistribution.sample(random));
+            OperationStats operationStats = (intendedStart >= recordStart ? stats.get(operation) : null);
+            String id = null;
+            if (operation == Operation.GET || operation == Operation.UPDATE) {
+                id = user.ids.get(idDistribution.sample(random));
+            } else if (operation == Operation.DELETE) {
+                // only companies created during the run are deleted, the ones to get and update are kept
+                id = user.created.poll();
+                if (id == null) {
+                    if (operationStats != null) {
+                        operationStats.skip();
+                    }
+                    continue;
+                }
+            }
+            if (inFlight.get() >= maxInFlight) {
+                if (operationStats != null) {
+                    operationStats.drop(timeout.toNanos());
+                }
+                if (id != null && operation == Operation.DELETE) {
+                    user.created.add(id);
+                }
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            request(operation, user, id, i)
+                .timeout(timeout)
+                .doFinally(s -> inFlight.decrementAndGet())
+                .subscribe(status -> {
+                    if (operationStats != null) {
+                        operationStats.record(intendedStart, sent, System.nanoTime(), status >= 400);
+                    }
+                }, e -> {
+                    log.debug("Request {} failed", operation, e);
+                    if (operationStats != null) {
+                        operationStats.record(intendedStart, sent, System.nanoTime(), true);
+                    }
+                });
+        }
+
+        long drainDeadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        stats.values().forEach(OperationStats::complete);
+        return stats;
+    }
+
+    private Mono<Integer> request(Operation operation, User user, String id, long sequence) {
+        WebClient.RequestHeadersSpec<?> request;
+        switch (operation) {
+            case LIST:
+                request = client.get().uri("/api/companies?pageSize={pageSize}", PAGE_SIZE)
+                    .accept(MediaType.TEXT_EVENT_STREAM);
+                break;
+            case GET:
+                request = client.get().uri("/api/companies/{id}", id);
+                break;
+            case CREATE:
+                request = client.post().uri("/api/companies")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(company(String.format("load-%s-run-%d", user.name, sequence)));
+                break;
+            case UPDATE:
+                request = client.put().uri("/api/companies/{id}", id)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(company(String.format("load-%s-update-%d", user.name, sequence)));
+                break;
+            case DELETE:
+                request = client.delete().uri("/api/companies/{id}", id);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        return request.header(HttpHeaders.AUTHORIZATION, user.token)
+            .exchange()
+            .flatMap(r -> {
+                if (operation == Operation.CREATE) {
+                    createdId(r).ifPresent(user.created::add);
+                }
+                // the body is read fully so the latency covers the whole response
+                return r.releaseBody().thenReturn(r.rawStatusCode());
+            });
+    }
+
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private static Optional<String> createdId(ClientResponse response) {
+        URI location = response.headers().asHttpHeaders().getLocation();
+        if (!response.statusCode().is2xxSuccessful() || location == null) {
+            return Optional.empty();
+        }
+        String path = location.getPath();
+        return Optional.of(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private static Map<String, Object> company(String name) {
+        Map<String, Object> company = new HashMap<>();
+        company.put("name", name);
+        company.put("activated", true);
+        return company;
+    }
+
+    static int pick(int[] weights, int value) {
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    static class User {
+        final String name;
+
+        final String token;
+
+        List<String> ids = Collections.emptyList();
+
+        final ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+
+        User(String name, String token) {
+            this.name = name;
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.loadgenerator;
+
+/**
+ * Requests of the mix, one latency histogram is kept per operation.
+ */
+public enum Operation {
+    LIST("GET /api/companies"),
+    GET("GET /api/companies/{id}"),
+    CREATE("POST /api/companies"),
+    UPDATE("PUT /api/companies/{id}"),
+    DELETE("DELETE /api/companies/{id}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
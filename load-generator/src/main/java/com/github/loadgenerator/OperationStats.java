@@ -0,0 +1,77 @@
+package com.github.loadgenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies of one operation, recorded in microseconds.
+ * <p>
+ * The response time starts at the time the request was scheduled to be sent, so a service that stalls is charged for
+ * every request that should have been sent meanwhile(coordinated omission correction).
+ * The service time starts when the request was actually sent and is what a closed model load tool would report.
+ * Requests dropped because too many were in flight are charged the timeout in the response time, the wait they were
+ * spared, so a stalled service still shows in the tail.
+ */
+public class OperationStats {
+    private final Recorder responseTime = new Recorder(3);
+
+    private final Recorder serviceTime = new Recorder(3);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private Histogram responseTimeHistogram;
+
+    private Histogram serviceTimeHistogram;
+
+    void record(long intendedStartNanos, long sentNanos, long endNanos, boolean error) {
+        responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedStartNanos));
+        serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - sentNanos));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    void drop(long timeoutNanos) {
+        responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(timeoutNanos));
+        dropped.increment();
+    }
+
+    void skip() {
+        skipped.increment();
+    }
+
+    /**
+     * Stop the recording, must be called once no request is in flight.
+     */
+    void complete() {
+        responseTimeHistogram = responseTime.getIntervalHistogram();
+        serviceTimeHistogram = serviceTime.getIntervalHistogram();
+    }
+
+    public Histogram getResponseTime() {
+        return responseTimeHistogram;
+    }
+
+    public Histogram getServiceTime() {
+        return serviceTimeHistogram;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+}
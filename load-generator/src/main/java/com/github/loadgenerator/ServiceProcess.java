@@ -0,0 +1,127 @@
+package com.github.loadgenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service started from its jar with the auth profile, so tokens can be minted through {@code /api/auth}.
+ */
+public class ServiceProcess implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ServiceProcess.class);
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+
+    private final int port;
+
+    private final Path logFile;
+
+    private ServiceProcess(Process process, int port, Path logFile) {
+        this.process = process;
+        this.port = port;
+        this.logFile = logFile;
+    }
+
+    public static ServiceProcess start(String target, LoadGeneratorOptions options, String mongodbUri) throws IOException {
+        String jar = options.getJar(target);
+        if (!new File(jar).isFile()) {
+            throw new IllegalArgumentException(String.format("Jar(%s) not found, build it or give --%s-jar/--%s-url", jar, target, target));
+        }
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.getAppJvmArgs());
+        command.add("-jar");
+        command.add(jar);
+
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        Map<String, String> environment = processBuilder.environment();
+        // the load is a few users at the whole rate, the per user rate limit and the admission control would answer most of it
+        environment.putIfAbsent("RATE_LIMIT_ENABLED", "false");
+        environment.putIfAbsent("ADMISSION_ENABLED", "false");
+        if ("spring".equals(target)) {
+            environment.put("SERVER_PORT", String.valueOf(port));
+            environment.put("SPRING_PROFILES_ACTIVE", "auth");
+            environment.put("SPRING_DATA_MONGODB_URI", mongodbUri);
+        } else {
+            environment.put("QUARKUS_HTTP_PORT", String.valueOf(port));
+            environment.put("QUARKUS_PROFILE", "auth");
+            // quarkus requires the key paths, the keys are created there when missing
+            String tmpDir = System.getProperty("java.io.tmpdir");
+            environment.putIfAbsent("PRIVATE_KEY_PATH", Paths.get(tmpDir, "privateKey.pem").toString());
+            environment.putIfAbsent("PUBLIC_KEY_PATH", Paths.get(tmpDir, "publicKey.pem").toString());
+            environment.put("MONGODB_URI", mongodbUri);
+            String database = databaseOf(mongodbUri);
+            if (!database.isEmpty()) {
+                environment.put("MONGODB_DATABASE", database);
+            }
+        }
+
+        Path logFile = Files.createTempFile(target + "-", ".log");
+        Process process = processBuilder.redirectErrorStream(true)
+            .redirectOutput(logFile.toFile())
+            .start();
+        log.info("Started {} on port {}, logging to {}", target, port, logFile);
+        return new ServiceProcess(process, port, logFile);
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Wait until a token is minted, the service is then up with the auth profile on.
+     */
+    public void awaitStarted(LoadRun loadRun) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(String.format("Service exited with code(%d), check %s", process.exitValue(), logFile));
+            }
+            try {
+                loadRun.mintToken("load-startup@gmail.com").block(Duration.ofSeconds(1));
+                return;
+            } catch (RuntimeException e) {
+                TimeUnit.MILLISECONDS.sleep(500);
+            }
+        }
+        throw new IllegalStateException(String.format("Service did not start in %s, check %s", STARTUP_TIMEOUT, logFile));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    static String databaseOf(String mongodbUri) {
+        int hosts = mongodbUri.indexOf("//");
+        int path = mongodbUri.indexOf('/', hosts < 0 ? 0 : hosts + 2);
+        if (path < 0) {
+            return "";
+        }
+        int query = mongodbUri.indexOf('?', path);
+        return mongodbUri.substring(path + 1, query < 0 ? mongodbUri.length() : query);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.loadgenerator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class OperationStatsTest {
+
+    @Test
+    @DisplayName("Test - When requests are dropped should charge them the timeout in the response time only")
+    public void shouldRecordDroppedRequestsAtTheTimeout() {
+        OperationStats stats = new OperationStats();
+        long timeout = TimeUnit.SECONDS.toNanos(10);
+        for (int i = 0; i < 98; i++) {
+            stats.record(0, 0, TimeUnit.MILLISECONDS.toNanos(5), false);
+        }
+        stats.drop(timeout);
+        stats.drop(timeout);
+        stats.complete();
+
+        assertThat(stats.getDropped()).isEqualTo(2);
+        assertThat(stats.getErrors()).isZero();
+        assertThat(stats.getResponseTime().getTotalCount()).isEqualTo(100);
+        assertThat((double) stats.getResponseTime().getMaxValue()).isCloseTo(TimeUnit.SECONDS.toMicros(10), within(10_000.0));
+        assertThat((double) stats.getResponseTime().getValueAtPercentile(99)).isCloseTo(TimeUnit.SECONDS.toMicros(10), within(10_000.0));
+        assertThat(stats.getServiceTime().getTotalCount()).isEqualTo(98);
+        assertThat((double) stats.getServiceTime().getMaxValue()).isCloseTo(TimeUnit.MILLISECONDS.toMicros(5), within(10.0));
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.loadgenerator;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ZipfDistributionTest {
+
+    @Test
+    @DisplayName("Test - When sampling should pick the ranks with the zipf probabilities")
+    public void shouldSampleWithZipfProbabilities() {
+        ZipfDistribution distribution = new ZipfDistribution(10, 1.0);
+        SplittableRandom random = new SplittableRandom(42);
+        int samples = 1_000_000;
+        int[] counts = new int[distribution.size()];
+        for (int i = 0; i < samples; i++) {
+            counts[distribution.sample(random)]++;
+        }
+
+        double harmonic = 0;
+        for (int i = 1; i <= 10; i++) {
+            harmonic += 1.0 / i;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            assertThat((double) counts[i] / samples).isCloseTo(1 / ((i + 1) * harmonic), within(0.005));
+        }
+    }
+
+    @Test
+    @DisplayName("Test - When exponent is zero should pick the ranks uniformly")
+    public void shouldSampleUniformlyWhenExponentIsZero() {
+        ZipfDistribution distribution = new ZipfDistribution(4, 0);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[distribution.size()];
+        for (int i = 0; i < 400_000; i++) {
+            counts[distribution.sample(random)]++;
+        }
+
+        for (int count : counts) {
+            assertThat(count / 400_000.0).isCloseTo(0.25, within(0.005));
+        }
+    }
+
+    @Test
+    @DisplayName("Test - When picking an operation should follow the mix weights")
+    public void shouldPickOperationByWeight() {
+        int[] weights = {20, 0, 5};
+
+        assertThat(LoadRun.pick(weights, 0)).isEqualTo(0);
+        assertThat(LoadRun.pick(weights, 19)).isEqualTo(0);
+        assertThat(LoadRun.pick(weights, 20)).isEqualTo(2);
+        assertThat(LoadRun.pick(weights, 24)).isEqualTo(2);
+    }
+}
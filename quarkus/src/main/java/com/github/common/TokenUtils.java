@@ -1,8 +1,7 @@
 package com.github.common;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.Key;
 import java.security.KeyFactory;
@@ -15,6 +14,7 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import io.smallrye.jwt.build.Jwt;
 import io.smallrye.jwt.build.JwtClaimsBuilder;
@@ -24,9 +24,33 @@ import org.slf4j.LoggerFactory;
 
 public class TokenUtils {
     private static final Logger log = LoggerFactory.getLogger(TokenUtils.class);
-	private static TokenUtils instance;
-	private String privateKeyPath;
-	private TokenUtils() {}
+	private static final Pattern PEM_DECORATION = Pattern.compile("-----BEGIN (.*)-----|-----END (.*)----|\r?\n");
+	private static final long RELOAD_CHECK_INTERVAL_MILLIS = 1000;
+	private static volatile TokenUtils instance;
+	private final File privateKeyFile;
+	private volatile KeyHolder keyHolder;
+	private volatile long nextReloadCheck;
+
+	private TokenUtils(String privateKeyPath) throws Exception {
+		this.privateKeyFile = getPrivateKeyFile(privateKeyPath);
+		this.keyHolder = loadKey();
+		this.nextReloadCheck = System.currentTimeMillis() + RELOAD_CHECK_INTERVAL_MILLIS;
+	}
+
+	/**
+	 * Parsed private key with the file state it was read from, replaced as a whole so readers never see a partial reload.
+	 */
+	private static final class KeyHolder {
+		private final PrivateKey privateKey;
+		private final long lastModified;
+		private final long length;
+
+		private KeyHolder(PrivateKey privateKey, long lastModified, long length) {
+			this.privateKey = privateKey;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+	}
 
 	/**
 	 * Utility method to generate a JWT string from a JSON resource file that is signed by the privateKey.pem
@@ -39,8 +63,7 @@ public class TokenUtils {
 	public String generateTokenString(AuthorizationDto authorizationDto)
 			throws Exception {
 		// Use the test private key associated with the test public key for a valid signature
-		PrivateKey pk = readPrivateKey();
-		return generateTokenString(pk, "test", authorizationDto);
+		return generateTokenString(getPrivateKey(), "test", authorizationDto);
 	}
 
 	public String generateTokenString(PrivateKey privateKey, String kid,
@@ -61,17 +84,49 @@ public class TokenUtils {
 	}
 
 	/**
-	 * Read a PEM encoded private key from the classpath
+	 * Return the parsed private key, the file is checked for changes at most once a second and parsed again only when it changed.
+	 * A key that fails to reload is logged and the previous key keeps being used.
+	 *
+	 * @return PrivateKey
+	 */
+	public PrivateKey getPrivateKey() {
+		long now = System.currentTimeMillis();
+		if (now >= nextReloadCheck) {
+			reloadIfChanged(now);
+		}
+		return keyHolder.privateKey;
+	}
+
+	private synchronized void reloadIfChanged(long now) {
+		if (now < nextReloadCheck) {
+			return;
+		}
+		nextReloadCheck = now + RELOAD_CHECK_INTERVAL_MILLIS;
+		KeyHolder current = keyHolder;
+		if (privateKeyFile.lastModified() != current.lastModified || privateKeyFile.length() != current.length) {
+			try {
+				keyHolder = loadKey();
+				log.info("Reloaded private key: {}", privateKeyFile);
+			} catch (Exception e) {
+				log.error("Could not reload private key: {}", privateKeyFile, e);
+			}
+		}
+	}
+
+	private KeyHolder loadKey() throws Exception {
+		long lastModified = privateKeyFile.lastModified();
+		long length = privateKeyFile.length();
+		return new KeyHolder(readPrivateKey(), lastModified, length);
+	}
+
+	/**
+	 * Read a PEM encoded private key from the file system
 	 *
 	 * @return PrivateKey
 	 * @throws Exception on decode failure
 	 */
 	public PrivateKey readPrivateKey() throws Exception {
-		try (InputStream contentIS = new FileInputStream(getPrivateKeyFile(privateKeyPath))) {
-			byte[] tmp = new byte[4096];
-			int length = contentIS.read(tmp);
-			return decodePrivateKey(new String(tmp, 0, length, "UTF-8"));
-		}
+		return decodePrivateKey(new String(Files.readAllBytes(privateKeyFile.toPath()), StandardCharsets.UTF_8));
 	}
 
 	/**
@@ -94,11 +149,7 @@ public class TokenUtils {
 	}
 
 	private String removeBeginEnd(String pem) {
-		pem = pem.replaceAll("-----BEGIN (.*)-----", "");
-		pem = pem.replaceAll("-----END (.*)----", "");
-		pem = pem.replaceAll("\r\n", "");
-		pem = pem.replaceAll("\n", "");
-		return pem.trim();
+		return PEM_DECORATION.matcher(pem).replaceAll("").trim();
 	}
 
 	/**
@@ -109,8 +160,22 @@ public class TokenUtils {
 		return (int) (currentTimeMS / 1000);
 	}
 
+	/**
+	 * Return the shared instance creating the key pair files when missing, the private key is parsed once here.
+	 *
+	 * @param privateKeyPath private key path or blank for the tmp dir
+	 * @param publicKeyPath public key path or blank for the tmp dir
+	 * @return TokenUtils
+	 */
 	public static TokenUtils getInstance(String privateKeyPath, String publicKeyPath) {
-		if (instance == null) {
+		TokenUtils tokenUtils = instance;
+		if (tokenUtils != null) {
+			return tokenUtils;
+		}
+		synchronized (TokenUtils.class) {
+			if (instance != null) {
+				return instance;
+			}
 			try {
                 File privateKey = getPrivateKeyFile(privateKeyPath);
                 if (!privateKey.exists()) {
@@ -132,14 +197,13 @@ public class TokenUtils {
 							Arrays.asList("-----BEGIN PUBLIC KEY-----", encoder
 									.encodeToString(pub.getEncoded()), "-----END PRIVATE KEY-----"));
 				}
-				instance = new TokenUtils();
-				instance.privateKeyPath = privateKeyPath;
+				instance = new TokenUtils(privateKeyPath);
+				return instance;
 			} catch (Exception e) {
 				log.error("Error generate cert", e);
 				throw new RuntimeException(e);
 			}
 		}
-		return instance;
 	}
 
     private static File getPrivateKeyFile(String privateKeyPath) {
@@ -0,0 +1,92 @@
+package com.github.quarkus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Concurrency limit adjusted by AIMD on the observed latency: the limit is cut by the backoff ratio when a request is slower
+ * than the latency threshold or failed on the server, and grows by one when a request was fast while at least half of the limit was in use.
+ * Only requests started after the last cut can cut it again, a burst of slow requests answering together cuts it once.
+ * <p>
+ * The limit settles around the concurrency the service answers within the threshold, so excess requests can be rejected right away
+ * instead of queueing until every request times out.
+ */
+public class AdaptiveConcurrencyLimit {
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long latencyThresholdNanos;
+
+	private final double backoffRatio;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final Ticker ticker;
+
+	private volatile double limit;
+
+	private long lastDecreaseNanos;
+
+	private boolean decreased;
+
+	public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+		this.ticker = Ticker.systemTicker();
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyThresholdNanos = latencyThresholdNanos;
+		this.backoffRatio = backoffRatio;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+
+	/**
+	 * @return whether the request may run, if so it must be followed by exactly one {@link #release} or {@link #ignore}
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= getLimit()) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @param latencyNanos time the request took
+	 * @param failed the server failed to answer, e.g. an error or a 5xx status
+	 */
+	public void release(long latencyNanos, boolean failed) {
+		int current = inFlight.getAndDecrement();
+		long now = ticker.read();
+		synchronized (this) {
+			if (failed || latencyNanos > latencyThresholdNanos) {
+				if (!decreased || now - latencyNanos - lastDecreaseNanos >= 0) {
+					limit = Math.max(minLimit, limit * backoffRatio);
+					lastDecreaseNanos = now;
+					decreased = true;
+				}
+			} else if (current * 2 >= limit) {
+				limit = Math.min(maxLimit, limit + 1);
+			}
+		}
+	}
+
+	/**
+	 * Release without a sample, e.g. when the client cancelled the request.
+	 */
+	public void ignore() {
+		inFlight.decrementAndGet();
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+}
@@ -0,0 +1,108 @@
+package com.github.quarkus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * The first page of active companies is the same for every admin, so it is kept as one snapshot per page size of
+ * ready to write frames, with the company already serialized as json.
+ * <p>
+ * Stale while revalidate: a snapshot older than refresh-after-write is still served as is while a single refresh runs in background,
+ * so admins never wait for mongodb once a page size was read and mongodb sees at most one query per page size and interval.
+ * A failed refresh keeps serving the previous snapshot.
+ */
+@ApplicationScoped
+public class AdminCompaniesSnapshot {
+	private static final Jsonb JSONB = JsonbBuilder.create();
+
+	@ConfigProperty(name = "cache.admin-companies.enabled", defaultValue = "true")
+	boolean enabled;
+
+	@ConfigProperty(name = "cache.admin-companies.refresh-after-write", defaultValue = "2s")
+	Duration refreshAfterWrite;
+
+	@ConfigProperty(name = "cache.admin-companies.expire-after-write", defaultValue = "1m")
+	Duration expireAfterWrite;
+
+	@ConfigProperty(name = "cache.admin-companies.maximum-size", defaultValue = "16")
+	long maximumSize;
+
+	@ConfigProperty(name = "cache.admin-companies.maximum-page-size", defaultValue = "100")
+	int maximumPageSize;
+
+	@Inject
+	CompanyResource.CompanyMapper companyMapper;
+
+	@Inject
+	MongoCommandMetrics mongoCommandMetrics;
+
+	private AsyncLoadingCache<Integer, List<Frame>> snapshots;
+
+	@PostConstruct
+	void init() {
+		snapshots = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.refreshAfterWrite(refreshAfterWrite)
+				.expireAfterWrite(expireAfterWrite)
+				.buildAsync((pageSize, executor) -> load(pageSize).subscribeAsCompletionStage());
+	}
+
+	/**
+	 * @return whether the page is served from a snapshot, otherwise read it from mongodb
+	 */
+	public boolean isCached(Object after, Integer pageSize) {
+		return enabled && after == null && pageSize <= maximumPageSize;
+	}
+
+	/**
+	 * Frames of the first page of active companies, with the cursor of each company as id.
+	 */
+	public Multi<Frame> firstPage(Integer pageSize) {
+		// a dependent future, cancelling a request must not cancel the load shared with the others
+		return Uni.createFrom().completionStage(() -> snapshots.get(pageSize).thenApply(Function.identity()))
+				.toMulti()
+				.onItem().produceIterable(frames -> frames).concatenate();
+	}
+
+	private Uni<List<Frame>> load(Integer pageSize) {
+		// shared by the requests and refreshed in the background, not bound to the deadline of any request
+		return mongoCommandMetrics.timeAll("find", () -> Company.findActiveCompanies(null, pageSize, 0))
+				.map(c -> new Frame(CompanyCursor.encode(null, c.id), JSONB.toJson(companyMapper.toResource(c))))
+				.collectItems().asList();
+	}
+
+	/**
+	 * A company of the snapshot as the id and data of its server sent event.
+	 */
+	public static class Frame {
+		private final String id;
+
+		private final String data;
+
+		Frame(String id, String data) {
+			this.id = id;
+			this.data = data;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public String getData() {
+			return data;
+		}
+	}
+}
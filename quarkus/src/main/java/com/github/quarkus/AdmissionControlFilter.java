@@ -0,0 +1,215 @@
+package com.github.quarkus;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+import io.vertx.ext.web.RoutingContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * Admission control of the company api like the spring-boot AdmissionControlFilter: requests over the {@link AdaptiveConcurrencyLimit}
+ * of reads or writes are answered right away with 503 and Retry-After, so the admitted ones keep answering within the latency threshold.
+ * <p>
+ * Streams, exports and bulk imports are long lived by design and are not limited, their duration says nothing about the load.
+ * Pages sent as events hold their permit until the last event, like spring-boot holds it until the response completes.
+ * Limit, in flight and rejected are exported as admission.limit, admission.in.flight and admission.rejected tagged by type.
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 100)
+public class AdmissionControlFilter implements ContainerRequestFilter, ContainerResponseFilter {
+	static final String LIMIT_METRIC = "admission.limit";
+
+	static final String IN_FLIGHT_METRIC = "admission.in.flight";
+
+	static final String REJECTED_METRIC = "admission.rejected";
+
+	private static final String ADMITTED_PATH = "/api/companies";
+
+	private static final List<String> UNLIMITED_PATHS = Arrays.asList("/api/companies/stream", "/api/companies/export", "/api/companies/bulk");
+
+	private static final String ADMISSION_PROPERTY = AdmissionControlFilter.class.getName() + ".admission";
+
+	private static final Metadata REJECTED_METADATA = Metadata.builder()
+			.withName(REJECTED_METRIC)
+			.withDescription("Requests answered with 503 because the limit was reached")
+			.withType(MetricType.COUNTER)
+			.build();
+
+	@ConfigProperty(name = "admission.companies.enabled", defaultValue = "true")
+	boolean enabled;
+
+	@ConfigProperty(name = "admission.companies.retry-after", defaultValue = "1s")
+	Duration retryAfter;
+
+	@ConfigProperty(name = "admission.companies.backoff-ratio", defaultValue = "0.9")
+	double backoffRatio;
+
+	@ConfigProperty(name = "admission.companies.read.initial-limit", defaultValue = "100")
+	int readInitialLimit;
+
+	@ConfigProperty(name = "admission.companies.read.min-limit", defaultValue = "10")
+	int readMinLimit;
+
+	@ConfigProperty(name = "admission.companies.read.max-limit", defaultValue = "1000")
+	int readMaxLimit;
+
+	@ConfigProperty(name = "admission.companies.read.latency-threshold", defaultValue = "250ms")
+	String readLatencyThreshold;
+
+	@ConfigProperty(name = "admission.companies.write.initial-limit", defaultValue = "50")
+	int writeInitialLimit;
+
+	@ConfigProperty(name = "admission.companies.write.min-limit", defaultValue = "5")
+	int writeMinLimit;
+
+	@ConfigProperty(name = "admission.companies.write.max-limit", defaultValue = "500")
+	int writeMaxLimit;
+
+	@ConfigProperty(name = "admission.companies.write.latency-threshold", defaultValue = "500ms")
+	String writeLatencyThreshold;
+
+	@Context
+	RoutingContext routingContext;
+
+	@Inject
+	MetricRegistry metricRegistry;
+
+	private AdaptiveConcurrencyLimit read;
+
+	private AdaptiveConcurrencyLimit write;
+
+	@PostConstruct
+	void init() {
+		// thresholds are in milliseconds, which the config durations do not parse
+		read = register("read", new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit, HttpMetricsFilter.parseNanos(readLatencyThreshold), backoffRatio));
+		write = register("write", new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit, HttpMetricsFilter.parseNanos(writeLatencyThreshold), backoffRatio));
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) {
+		if (!enabled || !isLimited(requestContext.getUriInfo().getPath())) {
+			return;
+		}
+		String type = isRead(requestContext.getMethod()) ? "read" : "write";
+		AdaptiveConcurrencyLimit limit = ("read".equals(type) ? read : write);
+		if (!limit.tryAcquire()) {
+			metricRegistry.counter(REJECTED_METADATA, new Tag("type", type)).inc();
+			requestContext.abortWith(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.getSeconds())))
+					.build());
+			return;
+		}
+		Permit permit = new Permit(limit);
+		requestContext.setProperty(ADMISSION_PROPERTY, permit);
+		routingContext.addBodyEndHandler(v -> permit.end());
+		routingContext.response().closeHandler(v -> permit.ignore());
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+		Object permit = requestContext.getProperty(ADMISSION_PROPERTY);
+		if (!(permit instanceof Permit)) {
+			return;
+		}
+		if (MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(responseContext.getMediaType())) {
+			// the response filters run when the headers of the events are flushed, the sample is taken once the events end
+			((Permit) permit).stream();
+		} else {
+			((Permit) permit).release(responseContext.getStatusInfo().getFamily() == Response.Status.Family.SERVER_ERROR);
+		}
+	}
+
+	static boolean isLimited(String path) {
+		String normalized = (path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path);
+		return (normalized.equals(ADMITTED_PATH) || normalized.startsWith(ADMITTED_PATH + "/")) && !UNLIMITED_PATHS.contains(normalized);
+	}
+
+	private static boolean isRead(String method) {
+		return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+	}
+
+	private AdaptiveConcurrencyLimit register(String type, AdaptiveConcurrencyLimit limit) {
+		Tag tag = new Tag("type", type);
+		metricRegistry.register(Metadata.builder()
+				.withName(LIMIT_METRIC)
+				.withDescription("Concurrent requests admitted")
+				.withType(MetricType.GAUGE)
+				.build(), (Gauge<Integer>) limit::getLimit, tag);
+		metricRegistry.register(Metadata.builder()
+				.withName(IN_FLIGHT_METRIC)
+				.withDescription("Admitted requests not answered yet")
+				.withType(MetricType.GAUGE)
+				.build(), (Gauge<Integer>) limit::getInFlight, tag);
+		return limit;
+	}
+
+	/**
+	 * Admission of one request, released once by the response filter, the response filters may run again when writing
+	 * the response fails, or once the events end for event streams.
+	 * <p>
+	 * The response filters do not run when the client goes away before the response or an async response fails, the permit
+	 * is then given back without a sample once the response ends or the connection is closed. The blocking output only takes
+	 * the close handler over while writing the body, after the response filters ran.
+	 */
+	private static class Permit {
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private final AdaptiveConcurrencyLimit limit;
+
+		private final long start = System.nanoTime();
+
+		private volatile boolean streaming;
+
+		Permit(AdaptiveConcurrencyLimit limit) {
+			this.limit = limit;
+		}
+
+		void release(boolean failed) {
+			if (released.compareAndSet(false, true)) {
+				limit.release(System.nanoTime() - start, failed);
+			}
+		}
+
+		void stream() {
+			streaming = true;
+		}
+
+		void end() {
+			if (streaming) {
+				release(false);
+			} else {
+				ignore();
+			}
+		}
+
+		void ignore() {
+			if (released.compareAndSet(false, true)) {
+				limit.ignore();
+			}
+		}
+	}
+}
@@ -1,14 +1,36 @@
 package com.github.quarkus;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
 import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,13 +38,32 @@ import org.slf4j.LoggerFactory;
 public class AppLifecycleBean {
 	private static final Logger log = LoggerFactory.getLogger(AppLifecycleBean.class);
 
+	private static final String DEFAULT_ID_INDEX = "_id_";
+
+	private static final Bson DEFAULT_ID_KEYS = Indexes.ascending("_id");
+
 	@ConfigProperty(name = "configuration.initialLoad", defaultValue = "true")
 	boolean loadMockedData;
 
+	@ConfigProperty(name = "configuration.createIndexes", defaultValue = "true")
+	boolean createIndexes;
+
 	@Inject
 	MongoClient mongoClient;
 
+	@Inject
+	MetricRegistry metricRegistry;
+
+	private final AtomicInteger missingIndexes = new AtomicInteger();
+
+	private final AtomicInteger extraIndexes = new AtomicInteger();
+
 	void onStart(@Observes StartupEvent ev) {
+		if (createIndexes) {
+			registerIndexGauges();
+			ensureIndexes()
+					.subscribe().with(i -> log.debug("Verified indexes"), e -> log.error("Could not verify indexes", e));
+		}
 		if (loadMockedData) {
 			log.debug("MongoDB settings: {}", mongoClient.getClusterDescription());
 			Company.count()
@@ -45,4 +86,92 @@ public class AppLifecycleBean {
 			}, RuntimeException::new);
 		}
 	}
+
+	/**
+	 * Create indexes declared on {@link Company} and update missing/extra index gauges.
+	 * An index named as declared but with other keys or partial filter counts as missing, queries would not use it as planned.
+	 *
+	 * @return names of indexes found on the collection
+	 */
+	Uni<Set<String>> ensureIndexes() {
+		ReactiveMongoCollection<Company> collection = Company.mongoCollection();
+		return collection.createIndexes(Company.INDEXES)
+				.onFailure().recoverWithItem(e -> {
+					log.error("Could not create indexes", e);
+					return Collections.emptyList();
+				})
+				.onItem().produceUni(created -> collection.listIndexes()
+						.collectItems().<Map<String, BsonDocument>>in(TreeMap::new, (indexes, index) -> indexes.put(index.getString("name"), toBson(index))))
+				.onItem().invoke(this::verifyIndexes)
+				.map(Map::keySet);
+	}
+
+	private void verifyIndexes(Map<String, BsonDocument> existing) {
+		Map<String, IndexModel> declared = new TreeMap<>();
+		Company.INDEXES.forEach(index -> declared.put(index.getOptions().getName(), index));
+		declared.put(DEFAULT_ID_INDEX, new IndexModel(DEFAULT_ID_KEYS));
+
+		Set<String> missing = new TreeSet<>();
+		Set<String> mismatched = new TreeSet<>();
+		declared.forEach((name, index) -> {
+			BsonDocument found = existing.get(name);
+			if (found == null) {
+				missing.add(name);
+			} else if (!sameKeys(toBson(index.getKeys()), found.getDocument("key", null))
+					|| !Objects.equals(toBson(index.getOptions().getPartialFilterExpression()), found.getDocument("partialFilterExpression", null))) {
+				mismatched.add(name);
+			}
+		});
+		Set<String> extra = new TreeSet<>(existing.keySet());
+		extra.removeAll(declared.keySet());
+
+		missingIndexes.set(missing.size() + mismatched.size());
+		extraIndexes.set(extra.size());
+		if (!missing.isEmpty()) {
+			log.warn("Missing indexes on {}: {}", Company.mongoCollection().getNamespace(), missing);
+		}
+		if (!mismatched.isEmpty()) {
+			log.warn("Indexes on {} not matching their declaration: {}", Company.mongoCollection().getNamespace(), mismatched);
+		}
+		if (!extra.isEmpty()) {
+			log.warn("Indexes not declared on {}: {}", Company.mongoCollection().getNamespace(), extra);
+		}
+	}
+
+	/**
+	 * Same fields in the same order and direction, mongodb may return a direction as another number type than declared.
+	 */
+	private static boolean sameKeys(BsonDocument declared, BsonDocument found) {
+		if (found == null || !new ArrayList<>(declared.keySet()).equals(new ArrayList<>(found.keySet()))) {
+			return false;
+		}
+		return declared.keySet().stream().allMatch(field -> {
+			BsonValue direction = declared.get(field);
+			BsonValue foundDirection = found.get(field);
+			if (direction.isNumber() && foundDirection.isNumber()) {
+				return direction.asNumber().doubleValue() == foundDirection.asNumber().doubleValue();
+			}
+			return direction.equals(foundDirection);
+		});
+	}
+
+	private static BsonDocument toBson(Bson bson) {
+		return (bson == null ? null : bson.toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()));
+	}
+
+	private void registerIndexGauges() {
+		Tag collection = new Tag("collection", Company.mongoCollection().getNamespace().getCollectionName());
+		registerGauge("mongodb.indexes.missing", "Indexes declared on companies but not found on the collection", missingIndexes, collection);
+		registerGauge("mongodb.indexes.extra", "Indexes found on the collection but not declared on companies", extraIndexes, collection);
+	}
+
+	private void registerGauge(String name, String description, AtomicInteger value, Tag tag) {
+		Metadata metadata = Metadata.builder()
+				.withName(name)
+				.withDescription(description)
+				.withType(MetricType.GAUGE)
+				.build();
+		metricRegistry.remove(name);
+		metricRegistry.register(metadata, (Gauge<Integer>) value::get, tag);
+	}
 }
@@ -3,7 +3,8 @@ package com.github.quarkus;
 import java.util.Collections;
 
 import javax.annotation.security.PermitAll;
-import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -15,11 +16,12 @@ import javax.ws.rs.core.Response;
 import com.github.common.AuthorizationDto;
 import com.github.common.TokenUtils;
 import io.quarkus.arc.profile.IfBuildProfile;
+import io.quarkus.runtime.StartupEvent;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 @IfBuildProfile("auth")
 @Path("/api/auth")
-@RequestScoped
+@ApplicationScoped
 public class AuthorizationResource {
 
     @ConfigProperty(name = "PRIVATE_KEY_PATH", defaultValue = "")
@@ -28,6 +30,13 @@ public class AuthorizationResource {
     @ConfigProperty(name = "PUBLIC_KEY_PATH", defaultValue = "")
     String publicKeyPath;
 
+	/**
+	 * Parse the private key at startup so the first token request does not pay for it.
+	 */
+	void onStart(@Observes StartupEvent ev) {
+		TokenUtils.getInstance(privateKeyPath, publicKeyPath);
+	}
+
 	@POST
 	@PermitAll
 	@Produces(MediaType.APPLICATION_JSON)
@@ -0,0 +1,53 @@
+package com.github.quarkus;
+
+/**
+ * Outcome of a single item of a bulk request, status follows the http status a single request would get.
+ */
+public class BulkResultDto {
+	private long index;
+	private String id;
+	private int status;
+	private String message;
+
+	public BulkResultDto() {
+	}
+
+	public BulkResultDto(long index, String id, int status, String message) {
+		this.index = index;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	public long getIndex() {
+		return index;
+	}
+
+	public void setIndex(long index) {
+		this.index = index;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
@@ -0,0 +1,62 @@
+package com.github.quarkus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * Totals of a streamed import, only the first failures are kept so memory does not grow with the upload.
+ */
+public class BulkSummaryDto {
+	public static final int MAX_REPORTED_FAILURES = 100;
+
+	private long total;
+	private long created;
+	private long failed;
+	private List<BulkResultDto> failures = new ArrayList<>();
+
+	public void add(BulkResultDto result) {
+		total++;
+		if (result.getStatus() == Response.Status.CREATED.getStatusCode()) {
+			created++;
+		} else {
+			failed++;
+			if (failures.size() < MAX_REPORTED_FAILURES) {
+				failures.add(result);
+			}
+		}
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public void setCreated(long created) {
+		this.created = created;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+
+	public List<BulkResultDto> getFailures() {
+		return failures;
+	}
+
+	public void setFailures(List<BulkResultDto> failures) {
+		this.failures = failures;
+	}
+}
@@ -2,16 +2,47 @@ package com.github.quarkus;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotBlank;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import io.quarkus.mongodb.FindOptions;
 import io.quarkus.mongodb.panache.MongoEntity;
 import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoEntity;
-import io.quarkus.panache.common.Page;
 import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 
 @MongoEntity(collection = "quarkus_companies")
 public class Company extends ReactivePanacheMongoEntity implements Serializable {
+	private static final Document SORT_BY_ID = new Document("_id", 1);
+
+	private static final Document ACTIVE_COMPANIES = new Document("activated", true);
+
+	/**
+	 * Indexes backing the active company listings, partial on active companies only.
+	 */
+	public static final List<IndexModel> INDEXES = Arrays.asList(
+		new IndexModel(Indexes.ascending("activated", "_id"), new IndexOptions()
+			.name("active_companies_idx")
+			.partialFilterExpression(ACTIVE_COMPANIES)),
+		new IndexModel(Indexes.ascending("createdByUser", "activated", "_id"), new IndexOptions()
+			.name("active_companies_by_user_idx")
+			.partialFilterExpression(ACTIVE_COMPANIES)));
+
 	@NotBlank
 	public String name;
 	@NotBlank
@@ -21,15 +52,79 @@ public class Company extends ReactivePanacheMongoEntity implements Serializable
 	public String lastModifiedByUser;
 	public Instant lastModifiedDate = Instant.now();
 
-	public static Multi<Company> findActiveCompanies(Integer pageSize) {
-	    return find("activated", true)
-            .page(Page.ofSize(pageSize))
-            .stream();
+	/**
+	 * @param maxTimeMs maxTimeMS of the query, 0 for no limit
+	 */
+	public static Multi<Company> findActiveCompanies(ObjectId after, Integer pageSize, long maxTimeMs) {
+		return findPage(afterId(new Document("activated", true), after), pageSize, maxTimeMs);
+	}
+
+	/**
+	 * @param maxTimeMs maxTimeMS of the query, 0 for no limit
+	 */
+	public static Multi<Company> findActiveCompaniesByUser(String user, ObjectId after, Integer pageSize, long maxTimeMs) {
+		return findPage(afterId(new Document("activated", true).append("createdByUser", user), after), pageSize, maxTimeMs);
+	}
+
+	/**
+	 * @param maxTimeMs maxTimeMS of the query, 0 for no limit
+	 * @return company or null when not found
+	 */
+	public static Uni<Company> findById(ObjectId id, long maxTimeMs) {
+		return findPage(new Document("_id", id), 1, maxTimeMs)
+			.collectItems().first();
+	}
+
+	/**
+	 * Insert companies with a single unordered insertMany so one failing company does not stop the others.
+	 *
+	 * @param companies companies with ids already assigned
+	 * @return write errors indexed by position in companies, empty when all were inserted
+	 */
+	public static Uni<List<BulkWriteError>> insertAllUnordered(List<Company> companies) {
+		return mongoCollection().insertMany(companies, new InsertManyOptions().ordered(false))
+			.map(r -> Collections.<BulkWriteError>emptyList())
+			.onFailure(MongoBulkWriteException.class).recoverWithItem(e -> ((MongoBulkWriteException) e).getWriteErrors());
+	}
+
+	/**
+	 * Rename a company and stamp the audit fields in a single atomic findOneAndUpdate.
+	 *
+	 * @param id company id
+	 * @param owner only update the company when created by this user, null to skip the ownership check
+	 * @param name new name
+	 * @param user user doing the change
+	 * @param maxTimeMs maxTimeMS of the update, 0 for no limit
+	 * @return company after the update or null when no company matched
+	 */
+	public static Uni<Company> updateName(ObjectId id, String owner, String name, String user, long maxTimeMs) {
+		Document filter = new Document("_id", id);
+		if (owner != null) {
+			filter.append("createdByUser", owner);
+		}
+		Document update = new Document("$set", new Document("name", name)
+			.append("lastModifiedByUser", user)
+			.append("lastModifiedDate", new Date()));
+		return Company.<Company>mongoCollection().findOneAndUpdate(filter, update, new FindOneAndUpdateOptions()
+			.returnDocument(ReturnDocument.AFTER)
+			.maxTime(maxTimeMs, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * Panache queries cannot set maxTimeMS, so pages are read from the collection.
+	 */
+	private static Multi<Company> findPage(Document query, int limit, long maxTimeMs) {
+		return Company.<Company>mongoCollection().find(new FindOptions()
+			.filter(query)
+			.sort(SORT_BY_ID)
+			.limit(limit)
+			.maxTime(maxTimeMs, TimeUnit.MILLISECONDS));
 	}
 
-	public static Multi<Company> findActiveCompaniesByUser(String user, Integer pageSize) {
-		return find("activated = ?1 and createdByUser = ?2", true, user)
-            .page(Page.ofSize(pageSize))
-            .stream();
+	/**
+	 * Seek past the last returned id instead of skipping, so every page costs the same.
+	 */
+	private static Document afterId(Document query, ObjectId after) {
+		return (after == null ? query : query.append("_id", new Document("$gt", after)));
 	}
 }
@@ -0,0 +1,27 @@
+package com.github.quarkus;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Fail the startup with the offending property, {@link CompanyResource} is request scoped so a chunk size below 1 would
+ * only show up on bulk requests, failing them or buffering a whole import in a single chunk when it is 0.
+ */
+@ApplicationScoped
+public class CompanyBulkConfig {
+	@ConfigProperty(name = "bulk.companies.chunk-size", defaultValue = "500")
+	int chunkSize;
+
+	void onStart(@Observes StartupEvent ev) {
+		validate(chunkSize);
+	}
+
+	static void validate(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalStateException(String.format("bulk.companies.chunk-size(%d) must be greater than 0", chunkSize));
+		}
+	}
+}
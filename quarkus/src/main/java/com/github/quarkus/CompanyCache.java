@@ -0,0 +1,172 @@
+package com.github.quarkus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Near cache of companies by id kept consistent across replicas by tailing a change stream on the companies collection.
+ * The cache is cleared every time the stream (re)connects so events missed in between cannot leave stale entries.
+ * <p>
+ * Every invalidation bumps the version of the id, a company read through is only kept when the version did not change
+ * while it was read, so a read racing an update or delete cannot cache the company as it was before the change.
+ * Versions are kept per hash stripe of the id so they do not grow with the ids, a collision only skips caching a read.
+ */
+@ApplicationScoped
+public class CompanyCache {
+	private static final Logger log = LoggerFactory.getLogger(CompanyCache.class);
+
+	private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+	private static final int VERSION_STRIPES = 1024;
+
+	@ConfigProperty(name = "cache.companies.maximum-size", defaultValue = "10000")
+	long maximumSize;
+
+	@ConfigProperty(name = "cache.companies.expire-after-write", defaultValue = "5m")
+	Duration expireAfterWrite;
+
+	private Cache<String, CompanyDto> cache;
+
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+	private final AtomicLong clears = new AtomicLong();
+
+	private volatile Cancellable subscription;
+
+	@PostConstruct
+	void init() {
+		cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.build();
+	}
+
+	void onStart(@Observes StartupEvent ev) {
+		subscription = listen().subscribe().with(id -> log.debug("Evicted cached company({})", id),
+				e -> log.error("Companies change stream stopped", e));
+	}
+
+	@PreDestroy
+	void destroy() {
+		if (subscription != null) {
+			subscription.cancel();
+		}
+	}
+
+	/**
+	 * Return the cached company or the one of the loader, which is expected to cache it with {@link #readThrough}.
+	 * Cached instances are shared so callers must not modify them.
+	 *
+	 * @param id company id
+	 * @param loader loads the company on a cache miss, e.g. shared with a {@link SingleFlight}
+	 * @return company or null when not found
+	 */
+	public Uni<CompanyDto> get(String id, Supplier<Uni<CompanyDto>> loader) {
+		return Uni.createFrom().deferred(() -> {
+			CompanyDto company = cache.getIfPresent(id);
+			return (company != null ? Uni.createFrom().item(company) : loader.get());
+		});
+	}
+
+	/**
+	 * Cache the company read unless it is null or the id is invalidated from the subscription to the read until its result.
+	 *
+	 * @param id company id
+	 * @param read company from mongodb, null when not found
+	 * @return the read
+	 */
+	public Uni<CompanyDto> readThrough(String id, Uni<CompanyDto> read) {
+		return Uni.createFrom().deferred(() -> {
+			long version = version(id);
+			return read.onItem().invoke(c -> {
+				if (c != null) {
+					putIfUnchanged(id, version, c);
+				}
+			});
+		});
+	}
+
+	public void invalidate(String id) {
+		versions.incrementAndGet(stripe(id));
+		cache.invalidate(id);
+	}
+
+	public void invalidateAll() {
+		clears.incrementAndGet();
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Tail the companies collection evicting changed ids, retrying with backoff when the stream fails.
+	 *
+	 * @return changed ids
+	 */
+	Multi<String> listen() {
+		return Company.mongoCollection().watch(Document.class)
+				.on().subscribed(s -> invalidateAll())
+				.map(this::evict)
+				.onFailure(this::isChangeStreamNotSupported).recoverWithCompletion()
+				.on().failure().invoke(e -> log.warn("Companies change stream failed, retrying", e))
+				.onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofMinutes(1)).indefinitely();
+	}
+
+	private void putIfUnchanged(String id, long version, CompanyDto company) {
+		cache.put(id, company);
+		// checked after the put, an invalidation between a check and the put would be lost
+		if (version(id) != version) {
+			cache.invalidate(id);
+		}
+	}
+
+	private long version(String id) {
+		return clears.get() + versions.get(stripe(id));
+	}
+
+	private static int stripe(String id) {
+		return (id.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+	}
+
+	private String evict(ChangeStreamDocument<Document> event) {
+		BsonDocument documentKey = event.getDocumentKey();
+		if (documentKey == null || !documentKey.containsKey("_id")) {
+			log.debug("Clearing cached companies on {} event", event.getOperationType());
+			invalidateAll();
+			return "";
+		}
+		BsonValue value = documentKey.get("_id");
+		String id = (value.isObjectId() ? value.asObjectId().getValue().toHexString() : value.asString().getValue());
+		log.debug("Evicting cached company({}) on {} event", id, event.getOperationType());
+		invalidate(id);
+		return id;
+	}
+
+	private boolean isChangeStreamNotSupported(Throwable e) {
+		if (e instanceof MongoCommandException && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+			log.warn("Change streams are not supported by this deployment, cached companies expire by ttl only: {}", e.getMessage());
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,128 @@
+package com.github.quarkus;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.quarkus.mongodb.ChangeStreamOptions;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Live changes of companies from a single change stream shared by every connected client, opened with the first client
+ * and closed with the last one.
+ * <p>
+ * Delete events only carry the id, so the owner of each company seen on insert or update is remembered to route them.
+ * Deletes of companies not seen since the stream was opened only reach admins.
+ */
+@ApplicationScoped
+public class CompanyChangeFeed {
+	private static final Logger log = LoggerFactory.getLogger(CompanyChangeFeed.class);
+
+	private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+	@ConfigProperty(name = "stream.companies.buffer-size", defaultValue = "256")
+	int bufferSize;
+
+	@ConfigProperty(name = "stream.companies.owners-maximum-size", defaultValue = "100000")
+	long ownersMaximumSize;
+
+	@Inject
+	CompanyResource.CompanyMapper companyMapper;
+
+	private Cache<String, String> owners;
+
+	private Multi<Change> changes;
+
+	@PostConstruct
+	void init() {
+		owners = Caffeine.newBuilder()
+				.maximumSize(ownersMaximumSize)
+				.build();
+		changes = Multi.createFrom().deferred(() -> Company.<Company>mongoCollection()
+				.watch(Collections.singletonList(Aggregates.match(Filters.in("operationType", Arrays.asList("insert", "update", "replace", "delete")))),
+						Company.class, new ChangeStreamOptions().fullDocument(FullDocument.UPDATE_LOOKUP)))
+				.transform().byFilteringItemsWith(this::hasCompany)
+				.map(this::toChange)
+				.onFailure(this::isChangeStreamNotSupported).recoverWithCompletion()
+				.on().failure().invoke(e -> log.warn("Companies change stream failed, retrying", e))
+				.onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofMinutes(1)).indefinitely()
+				.broadcast().withCancellationAfterLastSubscriberDeparture().toAllSubscribers();
+	}
+
+	/**
+	 * Changes visible to the user, buffered per client so a slow client does not hold back the others.
+	 * When the buffer is full the client gets a {@link CompanyEventDto#RESYNC} event and the stream completes.
+	 *
+	 * @param user only changes of companies created by this user, null for every change
+	 * @return changes as they are committed
+	 */
+	public Multi<CompanyEventDto> changes(String user) {
+		return changes.transform().byFilteringItemsWith(c -> user == null || user.equals(c.owner))
+				.map(c -> c.event)
+				.onOverflow().buffer(bufferSize)
+				.onFailure(BackPressureFailure.class).recoverWithItem(e -> {
+					log.debug("Companies stream buffer of user({}) is full, asking to resync", user);
+					return new CompanyEventDto(CompanyEventDto.RESYNC, null, null);
+				});
+	}
+
+	/**
+	 * Skip events without an id or updates of companies deleted before the lookup of the full document.
+	 */
+	private boolean hasCompany(ChangeStreamDocument<Company> event) {
+		BsonDocument documentKey = event.getDocumentKey();
+		return documentKey != null && documentKey.containsKey("_id") &&
+				(event.getOperationType() == OperationType.DELETE || event.getFullDocument() != null);
+	}
+
+	private Change toChange(ChangeStreamDocument<Company> event) {
+		BsonValue value = event.getDocumentKey().get("_id");
+		String id = (value.isObjectId() ? value.asObjectId().getValue().toHexString() : value.asString().getValue());
+		if (event.getOperationType() == OperationType.DELETE) {
+			String owner = owners.getIfPresent(id);
+			owners.invalidate(id);
+			return new Change(owner, new CompanyEventDto(CompanyEventDto.DELETE, id, null));
+		}
+		Company company = event.getFullDocument();
+		owners.put(id, company.createdByUser);
+		String type = (event.getOperationType() == OperationType.INSERT ? CompanyEventDto.INSERT : CompanyEventDto.UPDATE);
+		return new Change(company.createdByUser, new CompanyEventDto(type, id, companyMapper.toResource(company)));
+	}
+
+	private boolean isChangeStreamNotSupported(Throwable e) {
+		if (e instanceof MongoCommandException && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+			log.warn("Change streams are not supported by this deployment, companies stream is empty: {}", e.getMessage());
+			return true;
+		}
+		return false;
+	}
+
+	private static class Change {
+		private final String owner;
+
+		private final CompanyEventDto event;
+
+		Change(String owner, CompanyEventDto event) {
+			this.owner = owner;
+			this.event = event;
+		}
+	}
+}
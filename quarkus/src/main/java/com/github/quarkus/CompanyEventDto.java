@@ -0,0 +1,52 @@
+package com.github.quarkus;
+
+/**
+ * Change of a company pushed by the companies stream, company is only set on insert and update.
+ * A resync event means changes were dropped and the client has to read the companies again.
+ */
+public class CompanyEventDto {
+	public static final String INSERT = "insert";
+
+	public static final String UPDATE = "update";
+
+	public static final String DELETE = "delete";
+
+	public static final String RESYNC = "resync";
+
+	private String type;
+	private String id;
+	private CompanyDto company;
+
+	public CompanyEventDto() {
+	}
+
+	public CompanyEventDto(String type, String id, CompanyDto company) {
+		this.type = type;
+		this.id = id;
+		this.company = company;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public CompanyDto getCompany() {
+		return company;
+	}
+
+	public void setCompany(CompanyDto company) {
+		this.company = company;
+	}
+}
@@ -1,17 +1,48 @@
 package com.github.quarkus;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.security.RolesAllowed;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbException;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
@@ -23,16 +54,28 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoNamespace;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCursor;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import org.bson.Document;
 import org.bson.types.ObjectId;
-import org.eclipse.microprofile.metrics.MetricUnits;
-import org.eclipse.microprofile.metrics.annotation.Counted;
-import org.eclipse.microprofile.metrics.annotation.Metered;
-import org.eclipse.microprofile.metrics.annotation.Timed;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
 import org.jboss.resteasy.annotations.SseElementType;
 import org.mapstruct.Mapper;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,9 +86,59 @@ import org.slf4j.LoggerFactory;
 public class CompanyResource {
     private static final Logger log = LoggerFactory.getLogger(CompanyResource.class);
 
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final String PREFER = "Prefer";
+
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private static final String BULK_ITEMS_METRIC = "companies.bulk.items";
+
+    private static final String BULK_CHUNK_METRIC = "companies.bulk.chunk";
+
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
     @Inject
     CompanyMapper companyMapper;
 
+    @Inject
+    CompanyCache companyCache;
+
+    @Inject
+    Validator validator;
+
+    @ConfigProperty(name = "bulk.companies.chunk-size", defaultValue = "500")
+    Integer chunkSize;
+
+    @ConfigProperty(name = "create.companies.return-minimal-enabled", defaultValue = "true")
+    Boolean returnMinimalEnabled;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    MongoClient mongoClient;
+
+    @Inject
+    MongoCommandMetrics mongoCommandMetrics;
+
+    @Inject
+    CompanyChangeFeed companyChangeFeed;
+
+    @Inject
+    SingleFlight singleFlight;
+
+    @Inject
+    AdminCompaniesSnapshot adminCompaniesSnapshot;
+
+    @Inject
+    CurrentRequestDeadline currentRequestDeadline;
+
+    @ConfigProperty(name = "stream.companies.heartbeat", defaultValue = "15s")
+    Duration heartbeat;
+
 /*
     private final PublishSubject<OffsetDateTime> publisher = PublishSubject.create();
     private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
@@ -63,101 +156,416 @@ public class CompanyResource {
     }
 */
 
+    /**
+     * The first pages of admins are served from {@link AdminCompaniesSnapshot}, already serialized.
+     */
     @GET
     @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_READ", "ROLE_COMPANY_SAVE", "COMPANY_DELETE", "ROLE_COMPANY_CREATE"})
     @Produces(MediaType.SERVER_SENT_EVENTS)
     @SseElementType(MediaType.APPLICATION_JSON)
-    @Timed(name = "getAllActiveCompaniesTimed",
-            description = "Monitor the time getAllActiveCompanies method takes",
-            unit = MetricUnits.MILLISECONDS,
-            absolute = true)
-    @Metered(name = "getAllActiveCompaniesMetered",
-            unit = MetricUnits.MILLISECONDS,
-            description = "Monitor the rate events occurred",
-            absolute = true)
-    @Counted(
-            name = "getAllActiveCompaniesCounted",
-            absolute = true,
-            displayName = "getAllActiveCompanies",
-            description = "Monitor how many times getAllActiveCompanies method was called")
-    public Multi<CompanyDto> getAllActiveCompanies(@Context SecurityContext ctx, @QueryParam("pageSize") @DefaultValue("10") Integer pageSize) {
+    public void getAllActiveCompanies(@Context SecurityContext ctx, @Context Sse sse, @Context SseEventSink sink,
+                                      @QueryParam("pageSize") @DefaultValue("10") Integer pageSize,
+                                      @QueryParam("cursor") String cursor) {
         String name = ctx.getUserPrincipal().getName();
         log.debug("hello {}", name);
-        Multi<Company> multi = hasRoleAdmin(ctx) ? Company.findActiveCompanies(pageSize) : Company
-                .findActiveCompaniesByUser(name, pageSize);
-        return multi.onItem().apply(c -> companyMapper.toResource(c));
+        String user = hasRoleAdmin(ctx) ? null : name;
+        ObjectId after = decodeCursor(cursor, user);
+        if (user == null && adminCompaniesSnapshot.isCached(after, pageSize)) {
+            sendAll(adminCompaniesSnapshot.firstPage(pageSize).map(f -> sse.newEventBuilder()
+                    .id(f.getId())
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(String.class, f.getData())
+                    .build()), sink, name, null);
+            return;
+        }
+        long maxTimeMs = currentRequestDeadline.maxTimeMillis();
+        Multi<Company> multi = singleFlight.multi("findActiveCompanies", Arrays.asList(user, after, pageSize), currentRequestDeadline.get(),
+                () -> mongoCommandMetrics.timeAll("find", () -> user == null ? Company.findActiveCompanies(after, pageSize, maxTimeMs) : Company
+                        .findActiveCompaniesByUser(user, after, pageSize, maxTimeMs)));
+        sendAll(currentRequestDeadline.within(multi).onItem().apply(c -> sse.newEventBuilder()
+                .id(CompanyCursor.encode(user, c.id))
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(CompanyDto.class, companyMapper.toResource(c))
+                .build()), sink, name, currentRequestDeadline);
+    }
+
+    /**
+     * Push changes of the companies visible to the user as they happen, with a heartbeat comment while idle.
+     * Heartbeats stop with the changes, e.g. after a resync event.
+     */
+    @GET
+    @Path("/stream")
+    @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_READ", "ROLE_COMPANY_SAVE", "COMPANY_DELETE", "ROLE_COMPANY_CREATE"})
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(@Context SecurityContext ctx, @Context Sse sse, @Context SseEventSink sink) {
+        String user = hasRoleAdmin(ctx) ? null : ctx.getUserPrincipal().getName();
+        AtomicBoolean open = new AtomicBoolean(true);
+        Multi<OutboundSseEvent> events = companyChangeFeed.changes(user)
+                .on().termination(() -> open.set(false))
+                .map(e -> sse.newEventBuilder()
+                        .name(e.getType())
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(CompanyEventDto.class, e)
+                        .build());
+        Multi<OutboundSseEvent> heartbeats = Multi.createFrom().ticks().every(heartbeat)
+                .onOverflow().drop()
+                .transform().byTakingItemsWhile(t -> open.get())
+                .map(t -> sse.newEventBuilder().comment("heartbeat").build());
+        sendAll(Multi.createBy().merging().streams(heartbeats, events), sink, ctx.getUserPrincipal().getName(), null);
+    }
+
+    /**
+     * Export every company with only the requested fields, the cursor is read batch by batch on the worker thread
+     * while each row is written to the response.
+     */
+    @GET
+    @Path("/export")
+    @RolesAllowed({"ROLE_ADMIN"})
+    @Produces({APPLICATION_NDJSON, CompanyExport.TEXT_CSV})
+    public Response export(@QueryParam("fields") String fields,
+                           @QueryParam("format") @DefaultValue("ndjson") String format,
+                           @QueryParam("batchSize") @DefaultValue("1000") Integer batchSize) {
+        List<String> exportFields;
+        CompanyExport.Format exportFormat;
+        try {
+            exportFields = CompanyExport.parseFields(fields);
+            exportFormat = CompanyExport.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        if (batchSize < 1) {
+            throw new BadRequestException("Invalid batchSize: " + batchSize);
+        }
+        MongoNamespace namespace = Company.mongoCollection().getNamespace();
+        StreamingOutput output = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (exportFormat == CompanyExport.Format.CSV) {
+                writer.write(CompanyExport.toCsvLine(exportFields));
+            }
+            try (MongoCursor<Document> cursor = mongoClient.getDatabase(namespace.getDatabaseName())
+                    .getCollection(namespace.getCollectionName())
+                    .find()
+                    .projection(CompanyExport.projection(exportFields))
+                    .batchSize(batchSize)
+                    .iterator()) {
+                while (cursor.hasNext()) {
+                    Map<String, Object> row = CompanyExport.toRow(cursor.next(), exportFields);
+                    writer.write(exportFormat == CompanyExport.Format.CSV ? CompanyExport.toCsvLine(row.values()) : JSONB.toJson(row) + "\n");
+                }
+            }
+            writer.flush();
+        };
+        return Response.ok(output, exportFormat.getMediaType()).build();
     }
 
     @GET
     @Path("/{id}")
     @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_READ", "ROLE_COMPANY_SAVE"})
     public Uni<Response> getById(@PathParam("id") String id, @Context SecurityContext ctx) {
-        return getCompanyById(id)
+        RequestDeadline deadline = currentRequestDeadline.get();
+        long maxTimeMs = currentRequestDeadline.maxTimeMillis();
+        return currentRequestDeadline.within(companyCache.get(id, () -> singleFlight.uni("findById", id, deadline, () -> companyCache.readThrough(id, getCompanyById(id, maxTimeMs)
+                .map(c -> c == null ? null : companyMapper.toResource(c)))))
                 .onItem().ifNull().failWith(NotFoundException::new)
                 .map(c -> {
-                    if (hasPermissionToChangeCompany(ctx).test(c)) {
-                        return Response.ok(companyMapper.toResource(c)).build();
+                    if (hasRoleAdmin(ctx) || c.getCreatedByUser().equals(ctx.getUserPrincipal().getName())) {
+                        return Response.ok(c).build();
                     } else {
                         throw new ForbiddenException(String.format("User(%s) does not have access to this resource", ctx.getUserPrincipal().getName()));
                     }
-                });
+                }));
     }
 
     @POST
     @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_CREATE"})
-    public Uni<Response> create(@Valid CompanyDto companyDto, @Context SecurityContext ctx) {
+    public Uni<Response> create(@Valid CompanyDto companyDto, @HeaderParam(PREFER) String prefer, @Context SecurityContext ctx) {
         Company company = companyMapper.toModel(companyDto);
+        Instant now = Instant.now();
         company.createdByUser = ctx.getUserPrincipal().getName();
-        return company.persist()
-                .flatMap(i -> company.findById(company.id))
-                .map(c -> Response.created(URI.create(String.format("/api/companies/%s", ((Company)c).id)))
-                                .entity(companyMapper.toResource(((Company)c)))
-                                .build());
+        company.createdDate = now;
+        company.lastModifiedByUser = company.createdByUser;
+        company.lastModifiedDate = now;
+        boolean returnMinimal = returnMinimalEnabled && isReturnMinimal(prefer);
+        return mongoCommandMetrics.<Void>time("insert", company::persist)
+                .map(v -> {
+                    Response.ResponseBuilder response = Response.created(URI.create(String.format("/api/companies/%s", company.id)));
+                    return (returnMinimal ? response.header(PREFERENCE_APPLIED, RETURN_MINIMAL) :
+                            response.entity(companyMapper.toResource(company))).build();
+                });
+    }
+
+    @POST
+    @Path("/bulk")
+    @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_CREATE"})
+    public Uni<List<BulkResultDto>> createBulk(List<CompanyDto> companies, @Context SecurityContext ctx) {
+        if (companies == null) {
+            throw new BadRequestException("Expected an array of companies");
+        }
+        return saveAll(Multi.createFrom().iterable(companies), ctx.getUserPrincipal().getName())
+                .collectItems().asList();
+    }
+
+    /**
+     * Import newline delimited json read line by line on the worker thread, the next chunk is only read
+     * once the previous one is written so the upload is never buffered beyond one chunk.
+     */
+    @POST
+    @Path("/bulk")
+    @Consumes(APPLICATION_NDJSON)
+    @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_CREATE"})
+    public BulkSummaryDto importCompanies(InputStream body, @Context SecurityContext ctx) throws IOException {
+        String user = ctx.getUserPrincipal().getName();
+        Instant now = Instant.now();
+        BulkSummaryDto summary = new BulkSummaryDto();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<BulkItem> chunk = new ArrayList<>(chunkSize);
+            long index = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                chunk.add(parseBulkItem(index++, line, user, now));
+                if (chunk.size() == chunkSize) {
+                    insertChunk(chunk).await().indefinitely().forEach(summary::add);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk).await().indefinitely().forEach(summary::add);
+            }
+        }
+        log.debug("Imported companies: total: {} created: {} failed: {}", summary.getTotal(), summary.getCreated(), summary.getFailed());
+        return summary;
     }
 
     @PUT
     @Path("/{id}")
     @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_CREATE"})
     public Uni<Response> update(@Valid CompanyDto companyDto, @PathParam("id") String id, @Context SecurityContext ctx) {
-        return getCompanyById(id)
-                .onItem().ifNull().failWith(NotFoundException::new)
+        String user = ctx.getUserPrincipal().getName();
+        long maxTimeMs = currentRequestDeadline.maxTimeMillis();
+        return currentRequestDeadline.within(mongoCommandMetrics.time("findAndModify", () -> Company.updateName(new ObjectId(id), hasRoleAdmin(ctx) ? null : user,
+                        companyDto.getName(), user, maxTimeMs))
+                .onItem().ifNull().switchTo(() -> updateNotMatched(id, ctx, maxTimeMs))
                 .map(c -> {
-                    c.name = companyDto.getName();
-                    c.lastModifiedByUser = ctx.getUserPrincipal().getName();
-                    c.update();
-                    return c;
-                })
-                .map(c -> Response.ok(c).build());
+                    companyCache.invalidate(id);
+                    return Response.ok(companyMapper.toResource(c)).build();
+                }));
     }
 
     @DELETE
     @Path("/{id}")
     @RolesAllowed({"ROLE_ADMIN", "ROLE_COMPANY_DELETE"})
     public Uni<Response> delete(@PathParam("id") String id, @Context SecurityContext ctx) {
-        return getCompanyById(id)
+        return currentRequestDeadline.within(getCompanyById(id, currentRequestDeadline.maxTimeMillis())
                 .onItem().ifNull().failWith(NotFoundException::new)
-                .map(c -> {
+                .onItem().produceUni(c -> {
                     if (hasPermissionToChangeCompany(ctx).test(c)) {
-                        return c.delete();
+                        companyCache.invalidate(id);
+                        return mongoCommandMetrics.<Void>time("delete", c::delete);
                     } else {
                         throw new ForbiddenException(String.format("User(%s) does not have access to delete this resource", ctx.getUserPrincipal().getName()));
                     }
                 })
-                .map(c -> Response.noContent().build());
+                .map(c -> Response.noContent().build()));
+    }
+
+    /**
+     * Validate and insert companies in unordered chunks, a failing company does not stop the others.
+     */
+    private Multi<BulkResultDto> saveAll(Multi<CompanyDto> companies, String user) {
+        Instant now = Instant.now();
+        AtomicLong index = new AtomicLong();
+        return companies.map(c -> toBulkItem(index.getAndIncrement(), c, user, now))
+                .groupItems().intoLists().of(chunkSize)
+                .onItem().<List<BulkResultDto>>produceUni(this::insertChunk).concatenate()
+                .onItem().<BulkResultDto>produceIterable(Function.identity()).concatenate();
+    }
+
+    private BulkItem parseBulkItem(long index, String line, String user, Instant now) {
+        try {
+            return toBulkItem(index, JSONB.fromJson(line, CompanyDto.class), user, now);
+        } catch (JsonbException e) {
+            return new BulkItem(index, null, new BulkResultDto(index, null, Response.Status.BAD_REQUEST.getStatusCode(), e.getMessage()));
+        }
     }
 
-    private Uni<Company> getCompanyById(String id) {
-        return Company.findById(new ObjectId(id));
+    private BulkItem toBulkItem(long index, CompanyDto companyDto, String user, Instant now) {
+        Set<ConstraintViolation<CompanyDto>> violations = validator.validate(companyDto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> String.format("%s %s", v.getPropertyPath(), v.getMessage()))
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            return new BulkItem(index, null, new BulkResultDto(index, null, Response.Status.BAD_REQUEST.getStatusCode(), message));
+        }
+        Company company = companyMapper.toModel(companyDto);
+        company.id = new ObjectId();
+        company.createdByUser = user;
+        company.createdDate = now;
+        company.lastModifiedByUser = user;
+        company.lastModifiedDate = now;
+        return new BulkItem(index, company, null);
+    }
+
+    private Uni<List<BulkResultDto>> insertChunk(List<BulkItem> chunk) {
+        List<Company> companies = chunk.stream()
+                .filter(i -> i.company != null)
+                .map(i -> i.company)
+                .collect(Collectors.toList());
+        Uni<List<BulkWriteError>> writeErrors = (companies.isEmpty() ? Uni.createFrom().item(Collections.emptyList()) :
+                Uni.createFrom().deferred(() -> {
+                    long start = System.nanoTime();
+                    return mongoCommandMetrics.time("insert", () -> Company.insertAllUnordered(companies))
+                            .onItem().invoke(e -> metricRegistry.timer(BULK_CHUNK_METRIC).update(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                }));
+        return writeErrors.map(errors -> {
+            Map<Integer, BulkWriteError> errorsByIndex = errors.stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+            Iterator<Company> inserted = companies.iterator();
+            List<BulkResultDto> results = new ArrayList<>(chunk.size());
+            int position = 0;
+            for (BulkItem item : chunk) {
+                if (item.result != null) {
+                    results.add(item.result);
+                    continue;
+                }
+                ObjectId id = inserted.next().id;
+                BulkWriteError error = errorsByIndex.get(position++);
+                results.add(error == null ? new BulkResultDto(item.index, id.toString(), Response.Status.CREATED.getStatusCode(), null) :
+                        new BulkResultDto(item.index, null, writeErrorStatus(error).getStatusCode(), error.getMessage()));
+            }
+            results.forEach(r -> metricRegistry.counter(BULK_ITEMS_METRIC, new Tag("status", String.valueOf(r.getStatus()))).inc());
+            return results;
+        });
     }
 
-    private boolean hasRoleAdmin(SecurityContext ctx) {
+    private Response.Status writeErrorStatus(BulkWriteError error) {
+        return (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY ? Response.Status.CONFLICT : Response.Status.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Write events to the sink one at a time and close it with the last one, so a slow client holds back its own events
+     * instead of filling the response.
+     * Events are sent through the sink because RESTEasy serializes the OutboundSseEvent items of a returned Multi as json data.
+     * With a deadline the events are cut short once it expires, the response is already committed for a 504.
+     */
+    private void sendAll(Multi<OutboundSseEvent> events, SseEventSink sink, String user, CurrentRequestDeadline deadline) {
+        events.subscribe(new Subscriber<OutboundSseEvent>() {
+            private final AtomicBoolean done = new AtomicBoolean();
+
+            private Subscription subscription;
+
+            private ScheduledFuture<?> expiry;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                // subscribed within the request, the deadline is read before the request scope is gone
+                this.expiry = (deadline != null ? deadline.onExpiry(this::cutShort) : null);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(OutboundSseEvent event) {
+                sink.send(event).whenComplete((r, e) -> {
+                    if (e == null && !sink.isClosed()) {
+                        subscription.request(1);
+                    } else {
+                        log.debug("Events of user({}) closed by the client", user);
+                        finish();
+                        subscription.cancel();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                log.warn("Events of user({}) failed", user, e);
+                finish();
+                sink.close();
+            }
+
+            @Override
+            public void onComplete() {
+                finish();
+                sink.close();
+            }
+
+            private boolean cutShort() {
+                if (!done.compareAndSet(false, true)) {
+                    return false;
+                }
+                log.debug("Events of user({}) cut short by the deadline", user);
+                subscription.cancel();
+                sink.close();
+                return true;
+            }
+
+            private void finish() {
+                if (done.compareAndSet(false, true) && expiry != null) {
+                    expiry.cancel(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Only read the company again when the conditional update did not match, to tell a missing company from one owned by another user.
+     */
+    private Uni<Company> updateNotMatched(String id, SecurityContext ctx, long maxTimeMs) {
+        return getCompanyById(id, maxTimeMs)
+                .onItem().ifNull().failWith(NotFoundException::new)
+                .map(c -> {
+                    throw new ForbiddenException(String.format("User(%s) does not have access to change this resource", ctx.getUserPrincipal().getName()));
+                });
+    }
+
+    /**
+     * Whether one of the preferences sent in the Prefer header is return=minimal.
+     */
+    private boolean isReturnMinimal(String prefer) {
+        return prefer != null && Stream.of(prefer.split(","))
+                .map(StringUtils::deleteWhitespace)
+                .anyMatch(RETURN_MINIMAL::equalsIgnoreCase);
+    }
+
+    private ObjectId decodeCursor(String cursor, String user) {
+        try {
+            return CompanyCursor.decode(cursor, user);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private Uni<Company> getCompanyById(String id, long maxTimeMs) {
+        return mongoCommandMetrics.time("find", () -> Company.findById(new ObjectId(id), maxTimeMs));
+    }
+
+    boolean hasRoleAdmin(SecurityContext ctx) {
         return ctx.isUserInRole("ROLE_ADMIN");
     }
 
-    private Predicate<Company> hasPermissionToChangeCompany(SecurityContext ctx) {
+    Predicate<Company> hasPermissionToChangeCompany(SecurityContext ctx) {
         return c -> hasRoleAdmin(ctx) || c.createdByUser.equals(ctx.getUserPrincipal().getName());
     }
 
+    /**
+     * Either a company ready to insert or the result of an item rejected before reaching mongo.
+     */
+    private static class BulkItem {
+        private final long index;
+        private final Company company;
+        private final BulkResultDto result;
+
+        BulkItem(long index, Company company, BulkResultDto result) {
+            this.index = index;
+            this.company = company;
+            this.result = result;
+        }
+    }
+
     @Mapper(componentModel = "cdi")
     interface CompanyMapper {
         CompanyDto toResource(Company company);
@@ -0,0 +1,101 @@
+package com.github.quarkus;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * {@link RequestDeadline} of the current request set by {@link RequestDeadlineFilter}, none outside of the company api or on routes without deadline.
+ * The resource reads it when building the mongo queries, before the request scope is gone.
+ */
+@RequestScoped
+public class CurrentRequestDeadline {
+	@Inject
+	MetricRegistry metricRegistry;
+
+	private RequestDeadline deadline;
+
+	private String type;
+
+	void set(RequestDeadline deadline, String type) {
+		this.deadline = deadline;
+		this.type = type;
+	}
+
+	/**
+	 * @return deadline of the request, null without deadline
+	 */
+	public RequestDeadline get() {
+		return deadline;
+	}
+
+	/**
+	 * @return time left as maxTimeMS, 0(no limit) without deadline
+	 */
+	public long maxTimeMillis() {
+		return (deadline == null ? 0 : deadline.maxTimeMillis());
+	}
+
+	/**
+	 * Answer 504 once the deadline expires, cancelling the mongo operation, or when mongo aborts it over its maxTimeMS.
+	 */
+	public Uni<Response> within(Uni<Response> response) {
+		if (deadline == null) {
+			return response;
+		}
+		String type = this.type;
+		if (deadline.remaining().isNegative() || deadline.remaining().isZero()) {
+			return Uni.createFrom().item(() -> expired(type, "timeout"));
+		}
+		return response.ifNoItem().after(deadline.remaining()).recoverWithItem(() -> expired(type, "timeout"))
+				.onFailure(RequestDeadline::isMongoTimeout).recoverWithItem(e -> expired(type, "mongodb"));
+	}
+
+	/**
+	 * Map mongo aborting a query over its maxTimeMS to 504, for responses written as the companies arrive.
+	 */
+	public <T> Multi<T> within(Multi<T> multi) {
+		if (deadline == null) {
+			return multi;
+		}
+		String type = this.type;
+		return multi.onFailure(RequestDeadline::isMongoTimeout).apply(e -> new WebApplicationException(expired(type, "mongodb")));
+	}
+
+	/**
+	 * Cut a response already being written short once the deadline expires, it cannot be answered with 504 anymore.
+	 *
+	 * @param cutShort closes the response, false when it was already complete
+	 * @return task to cancel once the response is complete, null without deadline
+	 */
+	public ScheduledFuture<?> onExpiry(BooleanSupplier cutShort) {
+		if (deadline == null) {
+			return null;
+		}
+		String type = this.type;
+		return Infrastructure.getDefaultWorkerPool().schedule(() -> {
+			if (cutShort.getAsBoolean()) {
+				expired(type, "timeout");
+			}
+		}, Math.max(0, deadline.remaining().toNanos()), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Count an expired request, the metric registry is application scoped so this also works after the request scope is gone.
+	 */
+	Response expired(String type, String cause) {
+		metricRegistry.counter(RequestDeadlineFilter.EXPIRED_METADATA, new Tag("type", type), new Tag("cause", cause)).inc();
+		return Response.status(Response.Status.GATEWAY_TIMEOUT).build();
+	}
+}
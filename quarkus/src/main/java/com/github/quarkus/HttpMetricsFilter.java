@@ -0,0 +1,160 @@
+package com.github.quarkus;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * Time every endpoint the same way spring-boot does with http.server.requests, tagged by method, route template(never the raw id),
+ * status and outcome.
+ * <p>
+ * The timer is exported with its quantiles, each slo bucket is a counter of the requests answered within it.
+ */
+@Provider
+public class HttpMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+	static final String REQUESTS_METRIC = "http.server.requests";
+
+	static final String SLO_METRIC = "http.server.requests.slo";
+
+	private static final String START_PROPERTY = HttpMetricsFilter.class.getName() + ".start";
+
+	private static final Metadata REQUESTS_METADATA = Metadata.builder()
+			.withName(REQUESTS_METRIC)
+			.withDescription("Time to answer a request per route")
+			.withType(MetricType.TIMER)
+			.withUnit(MetricUnits.NANOSECONDS)
+			.build();
+
+	private static final Metadata SLO_METADATA = Metadata.builder()
+			.withName(SLO_METRIC)
+			.withDescription("Requests answered within the le seconds per route")
+			.withType(MetricType.COUNTER)
+			.build();
+
+	private final Map<Method, String> templates = new ConcurrentHashMap<>();
+
+	@Context
+	ResourceInfo resourceInfo;
+
+	@Inject
+	MetricRegistry metricRegistry;
+
+	@ConfigProperty(name = "metrics.http.slo-buckets", defaultValue = "50ms,100ms,250ms,500ms,1s,2500ms")
+	String sloBuckets;
+
+	private long[] sloNanos;
+
+	private Tag[] sloTags;
+
+	@PostConstruct
+	void init() {
+		sloNanos = parseBuckets(sloBuckets);
+		sloTags = Arrays.stream(sloNanos)
+				.mapToObj(b -> new Tag("le", String.valueOf(b / (double) TimeUnit.SECONDS.toNanos(1))))
+				.toArray(Tag[]::new);
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) {
+		requestContext.setProperty(START_PROPERTY, System.nanoTime());
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+		Object start = requestContext.getProperty(START_PROPERTY);
+		if (!(start instanceof Long)) {
+			return;
+		}
+		long elapsed = System.nanoTime() - (Long) start;
+		Tag method = new Tag("method", requestContext.getMethod());
+		Tag uri = new Tag("uri", uri(responseContext.getStatus()));
+		Tag outcome = new Tag("outcome", outcome(responseContext.getStatusInfo().getFamily()));
+		metricRegistry.timer(REQUESTS_METADATA, method, uri, outcome, new Tag("status", String.valueOf(responseContext.getStatus())))
+				.update(elapsed, TimeUnit.NANOSECONDS);
+		for (int i = 0; i < sloNanos.length; i++) {
+			if (elapsed <= sloNanos[i]) {
+				metricRegistry.counter(SLO_METADATA, method, uri, outcome, sloTags[i]).inc();
+			}
+		}
+	}
+
+	private String uri(int status) {
+		Method method = resourceInfo.getResourceMethod();
+		if (method == null) {
+			return (status == Response.Status.NOT_FOUND.getStatusCode() ? "NOT_FOUND" : "UNKNOWN");
+		}
+		Class<?> resourceClass = resourceInfo.getResourceClass();
+		return templates.computeIfAbsent(method, m -> template(resourceClass, m));
+	}
+
+	static String template(Class<?> resourceClass, Method method) {
+		Path classPath = null;
+		// intercepted resources are subclasses generated without the @Path
+		for (Class<?> c = resourceClass; c != null && classPath == null; c = c.getSuperclass()) {
+			classPath = c.getAnnotation(Path.class);
+		}
+		Path methodPath = method.getAnnotation(Path.class);
+		String template = "/" + (classPath == null ? "" : classPath.value()) + "/" + (methodPath == null ? "" : methodPath.value());
+		template = template.replaceAll("/+", "/");
+		return (template.length() > 1 && template.endsWith("/") ? template.substring(0, template.length() - 1) : template);
+	}
+
+	static String outcome(Response.Status.Family family) {
+		switch (family) {
+			case INFORMATIONAL:
+			case REDIRECTION:
+			case CLIENT_ERROR:
+			case SERVER_ERROR:
+				return family.name();
+			case SUCCESSFUL:
+				return "SUCCESS";
+			default:
+				return "UNKNOWN";
+		}
+	}
+
+	/**
+	 * @param buckets comma separated durations like spring-boot sla, e.g. 50ms,1s
+	 */
+	static long[] parseBuckets(String buckets) {
+		return Arrays.stream(buckets.split(","))
+				.map(String::trim)
+				.filter(b -> !b.isEmpty())
+				.mapToLong(HttpMetricsFilter::parseNanos)
+				.sorted()
+				.toArray();
+	}
+
+	static long parseNanos(String duration) {
+		String value = duration.toLowerCase();
+		if (value.endsWith("ms")) {
+			return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 2)));
+		} else if (value.endsWith("s")) {
+			return TimeUnit.SECONDS.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+		} else if (value.endsWith("m")) {
+			return TimeUnit.MINUTES.toNanos(Long.parseLong(value.substring(0, value.length() - 1)));
+		}
+		return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(value));
+	}
+}
@@ -0,0 +1,65 @@
+package com.github.quarkus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * Time mongodb operations by command like the spring-boot mongodb.driver.commands timer, tagged by command and status.
+ * <p>
+ * The quarkus mongodb client has no hook for a command listener, so operations are timed where they are subscribed,
+ * which also includes the time spent waiting for a pooled connection.
+ */
+@ApplicationScoped
+public class MongoCommandMetrics {
+	static final String COMMANDS_METRIC = "mongodb.driver.commands";
+
+	private static final Metadata COMMANDS_METADATA = Metadata.builder()
+			.withName(COMMANDS_METRIC)
+			.withDescription("Time to run a mongodb command, including the wait for a pooled connection")
+			.withType(MetricType.TIMER)
+			.withUnit(MetricUnits.NANOSECONDS)
+			.build();
+
+	@Inject
+	MetricRegistry metricRegistry;
+
+	/**
+	 * @param command mongodb command name, e.g. find, insert, update, delete, count
+	 * @param operation subscribed once per subscription, so every subscription is timed
+	 */
+	public <T> Uni<T> time(String command, Supplier<Uni<T>> operation) {
+		return Uni.createFrom().deferred(() -> {
+			long start = System.nanoTime();
+			return operation.get()
+					.on().termination((item, failure, cancelled) -> record(command, start, failure != null, cancelled));
+		});
+	}
+
+	/**
+	 * Time a cursor from the subscription until the last document.
+	 */
+	public <T> Multi<T> timeAll(String command, Supplier<Multi<T>> operation) {
+		return Multi.createFrom().deferred(() -> {
+			long start = System.nanoTime();
+			return operation.get()
+					.on().termination((failure, cancelled) -> record(command, start, failure != null, cancelled));
+		});
+	}
+
+	private void record(String command, long start, boolean failed, Boolean cancelled) {
+		String status = failed ? "FAILED" : (Boolean.TRUE.equals(cancelled) ? "CANCELLED" : "SUCCESS");
+		metricRegistry.timer(COMMANDS_METADATA, new Tag("command", command), new Tag("status", status))
+				.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,39 @@
+package com.github.quarkus;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.interceptor.Interceptor;
+
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Fail the startup with the offending property before the mongodb client is created, instead of letting the driver
+ * reject the pool with a generic state error or run with a pool that can never be used.
+ */
+@ApplicationScoped
+public class MongoPoolConfig {
+	@ConfigProperty(name = "quarkus.mongodb.min-pool-size", defaultValue = "0")
+	int minPoolSize;
+
+	@ConfigProperty(name = "quarkus.mongodb.max-pool-size", defaultValue = "100")
+	int maxPoolSize;
+
+	void onStart(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) StartupEvent ev) {
+		validate(minPoolSize, maxPoolSize);
+	}
+
+	static void validate(int minPoolSize, int maxPoolSize) {
+		if (minPoolSize < 0) {
+			throw new IllegalStateException(String.format("quarkus.mongodb.min-pool-size(%d) must be 0 or greater", minPoolSize));
+		}
+		if (maxPoolSize < 1) {
+			throw new IllegalStateException(String.format("quarkus.mongodb.max-pool-size(%d) must be greater than 0", maxPoolSize));
+		}
+		if (minPoolSize > maxPoolSize) {
+			throw new IllegalStateException(String.format("quarkus.mongodb.min-pool-size(%d) must not be greater than quarkus.mongodb.max-pool-size(%d)",
+					minPoolSize, maxPoolSize));
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.github.quarkus;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+
+/**
+ * Rate limit of the company api per user like the spring-boot RateLimitFilter: requests over the rate of the user are answered
+ * with 429 and Retry-After, the time until its next permit. A user gets the highest rate of its roles or the default rate.
+ * <p>
+ * Rates of roles are read from rate-limit.companies.roles.ROLE.permits-per-second and burst for every role listed in rate-limit.companies.roles.
+ * Rejected requests are exported as ratelimit.rejected tagged by the role of the rate, never by user, and buckets as ratelimit.buckets.
+ */
+@Provider
+@Priority(Priorities.USER)
+public class RateLimitFilter implements ContainerRequestFilter {
+	static final String REJECTED_METRIC = "ratelimit.rejected";
+
+	static final String BUCKETS_METRIC = "ratelimit.buckets";
+
+	static final String DEFAULT_ROLE = "default";
+
+	private static final String LIMITED_PATH = "/api/companies";
+
+	private static final String ROLES_PROPERTY = "rate-limit.companies.roles";
+
+	private static final Metadata REJECTED_METADATA = Metadata.builder()
+			.withName(REJECTED_METRIC)
+			.withDescription("Requests answered with 429 because the user was over its rate")
+			.withType(MetricType.COUNTER)
+			.build();
+
+	@ConfigProperty(name = "rate-limit.companies.enabled", defaultValue = "true")
+	boolean enabled;
+
+	@ConfigProperty(name = "rate-limit.companies.idle-timeout", defaultValue = "1m")
+	Duration idleTimeout;
+
+	@ConfigProperty(name = "rate-limit.companies.maximum-size", defaultValue = "100000")
+	long maximumSize;
+
+	@ConfigProperty(name = "rate-limit.companies.default-limit.permits-per-second", defaultValue = "10")
+	double defaultPermitsPerSecond;
+
+	@ConfigProperty(name = "rate-limit.companies.default-limit.burst", defaultValue = "20")
+	int defaultBurst;
+
+	@ConfigProperty(name = ROLES_PROPERTY)
+	Optional<List<String>> roles;
+
+	@Inject
+	Config config;
+
+	@Inject
+	MetricRegistry metricRegistry;
+
+	private TokenBucketRateLimiter rateLimiter;
+
+	private RoleRate defaultRate;
+
+	private List<RoleRate> roleRates;
+
+	@PostConstruct
+	void init() {
+		rateLimiter = new TokenBucketRateLimiter(idleTimeout, maximumSize);
+		defaultRate = new RoleRate(DEFAULT_ROLE, defaultPermitsPerSecond, defaultBurst);
+		// highest rate first, the first role the user has wins
+		roleRates = roles.orElse(Collections.emptyList()).stream()
+				.map(String::trim)
+				.filter(r -> !r.isEmpty())
+				.map(r -> new RoleRate(r, config.getValue(ROLES_PROPERTY + "." + r + ".permits-per-second", Double.class),
+						config.getValue(ROLES_PROPERTY + "." + r + ".burst", Integer.class)))
+				.sorted(Comparator.comparingDouble((RoleRate r) -> r.permitsPerSecond).reversed())
+				.collect(Collectors.toList());
+		metricRegistry.register(Metadata.builder()
+				.withName(BUCKETS_METRIC)
+				.withDescription("Users with a rate limit bucket")
+				.withType(MetricType.GAUGE)
+				.build(), (Gauge<Long>) rateLimiter::size);
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) {
+		SecurityContext securityContext = requestContext.getSecurityContext();
+		Principal principal = (securityContext != null ? securityContext.getUserPrincipal() : null);
+		if (!enabled || principal == null || !isLimited(requestContext.getUriInfo().getPath())) {
+			return;
+		}
+		RoleRate roleRate = rateOf(securityContext);
+		long wait = rateLimiter.tryAcquire(principal.getName(), roleRate.rate);
+		if (wait > 0) {
+			roleRate.rejected.inc();
+			long seconds = (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+			requestContext.abortWith(Response.status(Response.Status.TOO_MANY_REQUESTS)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, seconds)))
+					.build());
+		}
+	}
+
+	private RoleRate rateOf(SecurityContext securityContext) {
+		for (RoleRate roleRate : roleRates) {
+			if (securityContext.isUserInRole(roleRate.role)) {
+				return roleRate;
+			}
+		}
+		return defaultRate;
+	}
+
+	private static boolean isLimited(String path) {
+		return path.equals(LIMITED_PATH) || path.startsWith(LIMITED_PATH + "/");
+	}
+
+	private class RoleRate {
+		private final String role;
+
+		private final double permitsPerSecond;
+
+		private final TokenBucketRateLimiter.Rate rate;
+
+		private final Counter rejected;
+
+		RoleRate(String role, double permitsPerSecond, int burst) {
+			this.role = role;
+			this.permitsPerSecond = permitsPerSecond;
+			this.rate = new TokenBucketRateLimiter.Rate(permitsPerSecond, burst);
+			this.rejected = metricRegistry.counter(REJECTED_METADATA, new Tag("role", role));
+		}
+	}
+}
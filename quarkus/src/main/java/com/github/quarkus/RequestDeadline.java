@@ -0,0 +1,51 @@
+package com.github.quarkus;
+
+import java.time.Duration;
+
+import com.mongodb.MongoExecutionTimeoutException;
+
+/**
+ * Point in time a request must be answered by, set by {@link RequestDeadlineFilter} and sent with the mongo queries
+ * of the request as maxTimeMS, like the spring-boot RequestDeadline.
+ */
+public final class RequestDeadline {
+	private final long deadlineNanos;
+
+	private RequestDeadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	public static RequestDeadline after(Duration timeout) {
+		return new RequestDeadline(System.nanoTime() + timeout.toNanos());
+	}
+
+	/**
+	 * @return whether the failure is mongo aborting an operation over its maxTimeMS
+	 */
+	public static boolean isMongoTimeout(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof MongoExecutionTimeoutException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return time left, zero or negative once expired
+	 */
+	public Duration remaining() {
+		return Duration.ofNanos(deadlineNanos - System.nanoTime());
+	}
+
+	public boolean isAfter(RequestDeadline other) {
+		return deadlineNanos - other.deadlineNanos > 0;
+	}
+
+	/**
+	 * @return time left as maxTimeMS, an expired deadline is 1ms since mongo treats 0 as no limit
+	 */
+	public long maxTimeMillis() {
+		return Math.max(1, remaining().toMillis());
+	}
+}
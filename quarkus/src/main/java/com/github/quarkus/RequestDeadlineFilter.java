@@ -0,0 +1,128 @@
+package com.github.quarkus;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricType;
+
+/**
+ * Deadline of the company api like the spring-boot RequestDeadlineFilter: the client sends the time it waits as X-Request-Timeout(milliseconds)
+ * or X-Request-Deadline(epoch milliseconds), otherwise the read or write timeout is used, capped by the max timeout.
+ * <p>
+ * The deadline is kept in {@link CurrentRequestDeadline} for the mongo queries and the resource answers 504 once it expires.
+ * Streams, exports and bulk inserts are long lived by design and have no deadline.
+ * Expired requests are exported as deadline.expired tagged by type and cause, inbound(already expired when received), timeout or mongodb(maxTimeMS).
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 50)
+public class RequestDeadlineFilter implements ContainerRequestFilter {
+	static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+	static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+	static final String EXPIRED_METRIC = "deadline.expired";
+
+	static final Metadata EXPIRED_METADATA = Metadata.builder()
+			.withName(EXPIRED_METRIC)
+			.withDescription("Requests answered with 504 because their deadline expired")
+			.withType(MetricType.COUNTER)
+			.build();
+
+	private static final String LIMITED_PATH = "/api/companies";
+
+	private static final List<String> UNLIMITED_PATHS = Arrays.asList("/api/companies/stream", "/api/companies/export", "/api/companies/bulk",
+			"/api/companies/endlessTimestampsMulti");
+
+	@ConfigProperty(name = "deadline.companies.enabled", defaultValue = "true")
+	boolean enabled;
+
+	@ConfigProperty(name = "deadline.companies.read-timeout", defaultValue = "2s")
+	String readTimeout;
+
+	@ConfigProperty(name = "deadline.companies.write-timeout", defaultValue = "5s")
+	String writeTimeout;
+
+	@ConfigProperty(name = "deadline.companies.max-timeout", defaultValue = "30s")
+	String maxTimeout;
+
+	@Inject
+	CurrentRequestDeadline currentRequestDeadline;
+
+	private Duration readTimeoutDuration;
+
+	private Duration writeTimeoutDuration;
+
+	private Duration maxTimeoutDuration;
+
+	@PostConstruct
+	void init() {
+		// timeouts may be in milliseconds, which the config durations do not parse
+		readTimeoutDuration = Duration.ofNanos(HttpMetricsFilter.parseNanos(readTimeout));
+		writeTimeoutDuration = Duration.ofNanos(HttpMetricsFilter.parseNanos(writeTimeout));
+		maxTimeoutDuration = Duration.ofNanos(HttpMetricsFilter.parseNanos(maxTimeout));
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) {
+		if (!enabled || !isLimited(requestContext.getUriInfo().getPath())) {
+			return;
+		}
+		String method = requestContext.getMethod();
+		String type = (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) ? "read" : "write");
+		Duration timeout;
+		try {
+			timeout = timeout(requestContext.getHeaders(), ("read".equals(type) ? readTimeoutDuration : writeTimeoutDuration));
+		} catch (NumberFormatException e) {
+			requestContext.abortWith(Response.status(Response.Status.BAD_REQUEST)
+					.entity(String.format("%s and %s must be milliseconds", TIMEOUT_HEADER, DEADLINE_HEADER))
+					.build());
+			return;
+		}
+		if (timeout.isNegative() || timeout.isZero()) {
+			requestContext.abortWith(currentRequestDeadline.expired(type, "inbound"));
+			return;
+		}
+		currentRequestDeadline.set(RequestDeadline.after(timeout), type);
+	}
+
+	private Duration timeout(MultivaluedMap<String, String> headers, Duration defaultTimeout) {
+		String timeoutHeader = headers.getFirst(TIMEOUT_HEADER);
+		String deadlineHeader = headers.getFirst(DEADLINE_HEADER);
+		if (timeoutHeader == null && deadlineHeader == null) {
+			return defaultTimeout;
+		}
+		Duration timeout = maxTimeoutDuration;
+		if (timeoutHeader != null) {
+			timeout = min(timeout, Duration.ofMillis(Long.parseLong(timeoutHeader.trim())));
+		}
+		if (deadlineHeader != null) {
+			timeout = min(timeout, Duration.ofMillis(Long.parseLong(deadlineHeader.trim()) - System.currentTimeMillis()));
+		}
+		return timeout;
+	}
+
+	static boolean isLimited(String path) {
+		String normalized = (path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path);
+		return (normalized.equals(LIMITED_PATH) || normalized.startsWith(LIMITED_PATH + "/")) && !UNLIMITED_PATHS.contains(normalized);
+	}
+
+	private static Duration min(Duration a, Duration b) {
+		return (a.compareTo(b) <= 0 ? a : b);
+	}
+}
@@ -0,0 +1,144 @@
+package com.github.quarkus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+import org.reactivestreams.Subscription;
+
+/**
+ * Coalesce identical concurrent reads: callers asking for the same key while a read is in flight subscribe to that read
+ * instead of starting their own, and the result is fanned out to all of them.
+ * <p>
+ * A read is forgotten as soon as it completes or fails, so nothing is served after it finished and there is no staleness.
+ * It is cancelled once every caller went away, e.g. over its deadline, so a slow mongo does not keep queries nobody waits for.
+ * The read is built with the {@link RequestDeadline} of the caller that started it, callers with a later deadline start their own
+ * read so a short deadline never fails them.
+ * Every call is counted as singleflight.requests tagged by operation and coalesced, like the spring-boot counter.
+ * Shared results are the same instances for every caller so they must not be changed.
+ */
+@ApplicationScoped
+public class SingleFlight {
+	static final String REQUESTS_METRIC = "singleflight.requests";
+
+	private static final Metadata REQUESTS_METADATA = Metadata.builder()
+			.withName(REQUESTS_METRIC)
+			.withDescription("Reads started or coalesced with an identical read in flight")
+			.withType(MetricType.COUNTER)
+			.build();
+
+	private final Map<List<Object>, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+	@Inject
+	MetricRegistry metricRegistry;
+
+	/**
+	 * @param operation name of the read, keys of different operations never match
+	 * @param key identifies identical reads, it must include whatever changes the result, e.g. the user the read is filtered by
+	 * @param deadline of the caller, null without deadline
+	 * @param read started once per in flight key, with the deadline of the caller starting it
+	 */
+	public <T> Uni<T> uni(String operation, Object key, RequestDeadline deadline, Supplier<Uni<T>> read) {
+		return share(Arrays.asList("uni", operation, key), operation, deadline, () -> read.get().toMulti()).toUni();
+	}
+
+	/**
+	 * Late callers receive every item from the first one, so the whole result is buffered while the read is in flight.
+	 */
+	public <T> Multi<T> multi(String operation, Object key, RequestDeadline deadline, Supplier<Multi<T>> read) {
+		return share(Arrays.asList("multi", operation, key), operation, deadline, read);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Multi<T> share(List<Object> flightKey, String operation, RequestDeadline deadline, Supplier<Multi<T>> read) {
+		return Multi.createFrom().deferred(() -> {
+			AtomicBoolean started = new AtomicBoolean();
+			Flight<T> flight = (Flight<T>) inFlight.compute(flightKey, (k, current) -> {
+				if (current != null && current.join(deadline)) {
+					return current;
+				}
+				started.set(true);
+				return start(k, read, deadline);
+			});
+			count(operation, !started.get());
+			return flight.result.on().cancellation(() -> leave(flightKey, flight));
+		});
+	}
+
+	private <T> Flight<T> start(List<Object> flightKey, Supplier<Multi<T>> read, RequestDeadline deadline) {
+		Flight<T> flight = new Flight<>(deadline);
+		flight.result = read.get()
+				.on().subscribed(flight::onSubscribe)
+				.on().termination((failure, cancelled) -> inFlight.remove(flightKey, flight))
+				.cache();
+		return flight;
+	}
+
+	private void leave(List<Object> flightKey, Flight<?> flight) {
+		if (flight.callers.decrementAndGet() == 0) {
+			inFlight.remove(flightKey, flight);
+			flight.cancel();
+		}
+	}
+
+	private void count(String operation, boolean coalesced) {
+		metricRegistry.counter(REQUESTS_METADATA, new Tag("operation", operation), new Tag("coalesced", String.valueOf(coalesced))).inc();
+	}
+
+	/**
+	 * Read shared by its callers, the cache never cancels what it subscribed to so the callers are counted to cancel the read
+	 * once the last one cancelled.
+	 */
+	private static class Flight<T> {
+		private final RequestDeadline deadline;
+
+		private final AtomicInteger callers = new AtomicInteger(1);
+
+		private Multi<T> result;
+
+		private Subscription upstream;
+
+		private boolean cancelled;
+
+		Flight(RequestDeadline deadline) {
+			this.deadline = deadline;
+		}
+
+		/**
+		 * @return whether the caller joined, the read must last as long as the caller waits and still have callers
+		 */
+		boolean join(RequestDeadline caller) {
+			if (deadline != null && (caller == null || caller.isAfter(deadline))) {
+				return false;
+			}
+			return callers.getAndUpdate(n -> (n == 0 ? 0 : n + 1)) > 0;
+		}
+
+		synchronized void onSubscribe(Subscription subscription) {
+			upstream = subscription;
+			if (cancelled) {
+				subscription.cancel();
+			}
+		}
+
+		synchronized void cancel() {
+			cancelled = true;
+			if (upstream != null) {
+				upstream.cancel();
+			}
+		}
+	}
+}
@@ -1,7 +1,15 @@
 package com.github.quarkus;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -9,6 +17,9 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
 import com.github.common.AuthorizationDto;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
 import io.quarkus.runtime.StartupEvent;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
@@ -17,11 +28,20 @@ import io.restassured.filter.log.RequestLoggingFilter;
 import io.restassured.filter.log.ResponseLoggingFilter;
 import io.restassured.http.ContentType;
 import io.restassured.path.json.JsonPath;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
 import io.vertx.mutiny.ext.web.client.WebClient;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,19 +52,32 @@ import org.mockito.Mockito;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 @QuarkusTest
 @QuarkusTestResource(MongoTestResource.class)
 public class CompanyResourceTest {
+    private static final int CONCURRENT_REQUESTS = 20;
+
     @Inject
     AppLifecycleBean appLifecycleBean;
 
+    @Inject
+    CompanyCache companyCache;
+
     @Inject
     Vertx vertx;
 
@@ -62,6 +95,7 @@ public class CompanyResourceTest {
     public void initializeWebClient() {
         this.client = WebClient.create(vertx, new WebClientOptions()
                 .setDefaultPort(assignedPort)
+                .setMaxPoolSize(CONCURRENT_REQUESTS)
                 .setLogActivity(true));
     }
 
@@ -108,6 +142,303 @@ public class CompanyResourceTest {
                 .body("name", is("new company"));
     }
 
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies with Prefer return=minimal should create resource without body - 201")
+    public void testCreateCompanyWithReturnMinimal() {
+        CompanyDto companyDto = new CompanyDto();
+        companyDto.setName("minimal company");
+
+        String location = given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .header("Prefer", "return=minimal")
+                .body(companyDto)
+                .contentType(ContentType.JSON)
+                .post("/api/companies")
+                .then()
+                .statusCode(201)
+                .header("Preference-Applied", is("return=minimal"))
+                .body(is(""))
+                .extract().header(HttpHeaders.LOCATION.toString());
+
+        Company company = Company.<Company>findById(new ObjectId(location.substring(location.lastIndexOf('/') + 1))).await().indefinitely();
+        assertThat(company.name, is("minimal company"));
+        assertThat(company.createdByUser, is("admin"));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling PUT - /api/companies/{id} with admin user should return the updated resource - 200")
+    public void testUpdateCompany() {
+        Company company = new Company();
+        company.name = "Test";
+        company.createdByUser = "test";
+        company.persist().await().indefinitely();
+
+        CompanyDto companyDto = new CompanyDto();
+        companyDto.setName("Test updated");
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .body(companyDto)
+                .contentType(ContentType.JSON)
+                .put("/api/companies/{id}", company.id.toHexString())
+                .then()
+                .statusCode(200)
+                .body("name", is("Test updated"))
+                .body("createdByUser", is("test"))
+                .body("lastModifiedByUser", is("admin"));
+
+        Company updated = Company.<Company>findById(company.id).await().indefinitely();
+        assertThat(updated.name, is("Test updated"));
+        assertThat(updated.lastModifiedByUser, is("admin"));
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .body(companyDto)
+                .contentType(ContentType.JSON)
+                .put("/api/companies/{id}", new ObjectId().toHexString())
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/{id} should be timed by route template on /metrics - 200")
+    public void testHttpMetrics() {
+        Company company = new Company();
+        company.name = "Metrics";
+        company.createdByUser = "admin";
+        company.persist().await().indefinitely();
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .get("/api/companies/{id}", company.id.toHexString())
+                .then()
+                .statusCode(200);
+
+        given()
+                .when()
+                .get("/metrics/application")
+                .then()
+                .statusCode(200)
+                .body(containsString("application_http_server_requests_seconds_count{"),
+                        containsString("uri=\"/api/companies/{id}\""),
+                        containsString("application_http_server_requests_slo_total{le=\"2.5\""),
+                        not(containsString(company.id.toHexString())));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling DELETE - /api/companies/{id} should delete and time the command on /metrics - 204")
+    public void testMongoCommandMetrics() {
+        Company company = new Company();
+        company.name = "Mongo Metrics";
+        company.createdByUser = "admin";
+        company.persist().await().indefinitely();
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .delete("/api/companies/{id}", company.id.toHexString())
+                .then()
+                .statusCode(204);
+
+        assertNull(Company.findById(company.id).await().indefinitely());
+        given()
+                .when()
+                .get("/metrics/application")
+                .then()
+                .statusCode(200)
+                .body(containsString("application_mongodb_driver_commands_seconds_count{"),
+                        containsString("command=\"delete\""),
+                        containsString("command=\"find\""));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/{id} concurrently should coalesce identical reads - 200")
+    public void testSingleFlightMetrics() {
+        Company company = new Company();
+        company.name = "Single Flight";
+        company.createdByUser = "admin";
+        company.persist().await().indefinitely();
+        String id = company.id.toHexString();
+
+        // reads only coalesce while one is in flight, retry with an empty cache until they overlapped
+        for (int i = 0; i < 10 && metricValue("application_singleflight_requests_total", "coalesced=\"true\"", "operation=\"findById\"") == 0; i++) {
+            companyCache.invalidate(id);
+            List<Integer> statuses = Multi.createFrom().range(0, CONCURRENT_REQUESTS)
+                    .onItem().produceUni(r -> client.get(String.format("/api/companies/%s", id))
+                            .basicAuthentication("admin", "admin")
+                            .send()
+                            .map(HttpResponse::statusCode))
+                    .merge()
+                    .collectItems().asList()
+                    .await().indefinitely();
+
+            assertThat(statuses, everyItem(is(200)));
+        }
+        assertThat(metricValue("application_singleflight_requests_total", "coalesced=\"true\"", "operation=\"findById\""), greaterThan(0.0));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies concurrently over the write limit should return 503 with Retry-After")
+    public void testAdmissionControlMetrics() {
+        JsonObject companyDto = new JsonObject().put("name", "Admission Control");
+
+        // the test write limit is one, retry until writes overlapped
+        List<HttpResponse<Buffer>> rejected = new ArrayList<>();
+        for (int i = 0; i < 10 && rejected.isEmpty(); i++) {
+            List<HttpResponse<Buffer>> responses = Multi.createFrom().range(0, CONCURRENT_REQUESTS)
+                    .onItem().produceUni(r -> client.post("/api/companies")
+                            .basicAuthentication("admin", "admin")
+                            .sendJsonObject(companyDto))
+                    .merge()
+                    .collectItems().asList()
+                    .await().indefinitely();
+
+            assertThat(responses.stream().map(HttpResponse::statusCode).collect(Collectors.toList()), everyItem(anyOf(is(201), is(503))));
+            responses.stream().filter(r -> r.statusCode() == 503).forEach(rejected::add);
+        }
+        assertThat(rejected, not(empty()));
+        assertThat(rejected.get(0).getHeader(HttpHeaders.RETRY_AFTER.toString()), is("1"));
+        assertThat(metricValue("application_admission_rejected_total", "type=\"write\""), greaterThan(0.0));
+        assertThat(metricValue("application_admission_in_flight", "type=\"write\""), is(0.0));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies over the rate of the user should return 429 with Retry-After")
+    public void testRateLimitMetrics() {
+        // guest has no role with a rate, it gets the default rate of one request in tests
+        given()
+                .when()
+                .auth().preemptive().basic("guest", "guest")
+                .get("/api/companies")
+                .then()
+                .statusCode(200);
+        given()
+                .when()
+                .auth().preemptive().basic("guest", "guest")
+                .get("/api/companies")
+                .then()
+                .statusCode(429)
+                .header(HttpHeaders.RETRY_AFTER.toString(), is(notNullValue()));
+        given()
+                .when()
+                .get("/metrics/application")
+                .then()
+                .statusCode(200)
+                .body(containsString("application_ratelimit_buckets "),
+                        containsString("application_ratelimit_rejected_total{role=\"default\"} 1.0"),
+                        containsString("application_ratelimit_rejected_total{role=\"ROLE_ADMIN\"} 0.0"));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/{id} with an expired X-Request-Deadline should return 504")
+    public void testGetCompanyWithExpiredDeadline() {
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .header("X-Request-Deadline", String.valueOf(System.currentTimeMillis() - 1000))
+                .get("/api/companies/{id}", new ObjectId().toHexString())
+                .then()
+                .statusCode(504);
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .header("X-Request-Timeout", "soon")
+                .get("/api/companies/{id}", new ObjectId().toHexString())
+                .then()
+                .statusCode(400);
+        given()
+                .when()
+                .get("/metrics/application")
+                .then()
+                .statusCode(200)
+                .body(containsString("application_deadline_expired_total{cause=\"inbound\",type=\"read\"}"));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies/bulk with admin user should return a result per company - 200")
+    public void testCreateCompaniesInBulk() {
+        CompanyDto companyDto = new CompanyDto();
+        companyDto.setName("bulk company");
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .body(Arrays.asList(companyDto, new CompanyDto()))
+                .contentType(ContentType.JSON)
+                .post("/api/companies/bulk")
+                .then()
+                .statusCode(200)
+                .body("status", contains(201, 400))
+                .body("[0].id", is(notNullValue()))
+                .body("[1].message", containsString("name"));
+
+        assertThat(Company.count(new Document("createdByUser", "admin").append("name", "bulk company")).await().indefinitely(), is(1L));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies/bulk with newline delimited json should return the import totals - 200")
+    public void testImportCompanies() {
+        String body = "{\"name\": \"imported 1\"}\n{\"name\": \"\"}\nnot json\n{\"name\": \"imported 2\"}\n";
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .body(body)
+                .contentType(CompanyResource.APPLICATION_NDJSON)
+                .post("/api/companies/bulk")
+                .then()
+                .statusCode(200)
+                .body("total", is(4))
+                .body("created", is(2))
+                .body("failed", is(2))
+                .body("failures.index", contains(1, 2));
+
+        assertThat(Company.count(new Document("createdByUser", "admin")).await().indefinitely(), is(2L));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/export with admin user should write the requested fields of each company - 200")
+    public void testExportCompanies() {
+        Company company = new Company();
+        company.name = "Acme, Inc";
+        company.createdByUser = "admin";
+        company.persist().await().indefinitely();
+
+        String ndjson = given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .get("/api/companies/export?fields=id,name")
+                .then()
+                .statusCode(200)
+                .contentType(containsString(CompanyResource.APPLICATION_NDJSON))
+                .extract().asString();
+
+        assertThat(ndjson, containsString(String.format("{\"id\":\"%s\",\"name\":\"Acme, Inc\"}\n", company.id)));
+
+        String csv = given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .get("/api/companies/export?fields=id,name&format=csv")
+                .then()
+                .statusCode(200)
+                .contentType(containsString(CompanyExport.TEXT_CSV))
+                .extract().asString();
+
+        assertThat(csv, startsWith("id,name\n"));
+        assertThat(csv, containsString(String.format("%s,\"Acme, Inc\"\n", company.id)));
+
+        given()
+                .when()
+                .auth().preemptive().basic("admin", "admin")
+                .get("/api/companies/export?fields=password")
+                .then()
+                .statusCode(400);
+    }
+
     @Disabled // Couldn't figure out one way to set two profiles(test/auth) at same time.
     @Test
     @DisplayName("Test - When Calling POST - /api/companies with authorization header should create resource - 204")
@@ -190,10 +521,7 @@ public class CompanyResourceTest {
                 .basicAuthentication("admin", "admin")
                 .send()
                 .onItem().apply(res -> {
-                    String list = Stream.of(res.bodyAsString().split("data: "))
-                            .map(String::trim)
-                            .filter(StringUtils::isNotBlank)
-                            .collect(Collectors.joining(","));
+                    String list = String.join(",", sseFields(res.bodyAsString(), "data:"));
                     return new JsonPath("["+list+"]");
                 })
                 .await().indefinitely();
@@ -204,4 +532,213 @@ public class CompanyResourceTest {
         assertThat(names, hasItems("Facebook", "Google", "Amazon"));
     }
 
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies with cursor the response should continue after the last company - 200 - OK")
+    public void testGetAllCompaniesWithCursor() {
+        List<String> cursors = client.get("/api/companies?pageSize=2")
+                .basicAuthentication("admin", "admin")
+                .send()
+                .onItem().apply(res -> sseFields(res.bodyAsString(), "id:"))
+                .await().indefinitely();
+
+        assertThat(cursors.size(), is(2));
+
+        List<String> nextPage = client.get("/api/companies?pageSize=2&cursor=" + cursors.get(1))
+                .basicAuthentication("admin", "admin")
+                .send()
+                .onItem().apply(res -> sseFields(res.bodyAsString(), "data:"))
+                .await().indefinitely();
+
+        assertThat(nextPage.size(), is(1));
+
+        given()
+                .when()
+                .auth().preemptive().basic("test", "test")
+                .get("/api/companies?cursor={cursor}", cursors.get(1))
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies with admin user the first page should be served from the snapshot - 200 - OK")
+    public void testGetAllCompaniesFromSnapshot() throws InterruptedException {
+        awaitUntil(() -> Company.count().await().indefinitely() == 3);
+        List<String> cursors = adminPage("/api/companies?pageSize=1");
+        assertThat(cursors.size(), is(1));
+        ObjectId first = CompanyCursor.decode(cursors.get(0), null);
+        Company.deleteById(first).await().indefinitely();
+
+        // the snapshot keeps the deleted company until it is refreshed, larger and next pages are read from mongodb
+        assertThat(adminPage("/api/companies?pageSize=1"), contains(cursors.get(0)));
+        List<String> largerPage = adminPage("/api/companies?pageSize=2");
+        assertThat(largerPage.size(), is(2));
+        assertThat(largerPage, not(hasItem(cursors.get(0))));
+        assertThat(adminPage("/api/companies?pageSize=1&cursor=" + cursors.get(0)), contains(largerPage.get(0)));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/stream changes should only reach the owner and admins - 200 - OK")
+    public void testStreamCompanies() throws InterruptedException {
+        HttpClient httpClient = vertx.getDelegate().createHttpClient(new HttpClientOptions().setDefaultPort(assignedPort));
+        try {
+            StringBuffer owner = stream(httpClient, "test");
+            StringBuffer other = stream(httpClient, "other");
+            StringBuffer admin = stream(httpClient, "admin");
+            // clients are subscribed once they got a heartbeat, the shared change stream is open once a change reached them
+            awaitUntil(() -> Stream.of(owner, other, admin).allMatch(b -> b.indexOf("heartbeat") >= 0));
+            for (int i = 0; i < 100 && admin.indexOf("Probe") < 0; i++) {
+                Company probe = new Company();
+                probe.name = "Probe";
+                probe.createdByUser = "admin";
+                probe.persist().await().indefinitely();
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+
+            Company company = new Company();
+            company.name = "Streamed";
+            company.createdByUser = "test";
+            company.persist().await().indefinitely();
+            company.name = "Streamed updated";
+            company.update().await().indefinitely();
+            // changes reach each client in order, once the change of its own company arrived the others would have too
+            Company last = new Company();
+            last.name = "Last";
+            last.createdByUser = "other";
+            last.persist().await().indefinitely();
+
+            String id = company.id.toHexString();
+            awaitUntil(() -> eventTypes(owner, id).size() == 2 && eventTypes(admin, id).size() == 2 &&
+                    eventTypes(other, last.id.toHexString()).size() == 1);
+            assertThat(eventTypes(owner, id), contains("insert", "update"));
+            assertThat(eventTypes(admin, id), contains("insert", "update"));
+            assertThat(eventTypes(other, id), is(empty()));
+            assertThat(eventTypes(owner, last.id.toHexString()), is(empty()));
+        } finally {
+            httpClient.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test - When application starts indexes for active companies should be created")
+    public void testEnsureIndexes() {
+        Set<String> indexes = appLifecycleBean.ensureIndexes().await().indefinitely();
+
+        assertThat(indexes, hasItems("_id_", "active_companies_idx", "active_companies_by_user_idx"));
+    }
+
+    @Test
+    @DisplayName("Test - When an index does not match its declaration it should be counted as missing")
+    public void testEnsureIndexesShouldCountIndexesNotMatchingTheirDeclarationAsMissing() {
+        ReactiveMongoCollection<Company> collection = Company.mongoCollection();
+        collection.dropIndex("active_companies_idx").onFailure().recoverWithItem((Void) null).await().indefinitely();
+        collection.createIndex(Indexes.ascending("activated"), new IndexOptions().name("active_companies_idx")).await().indefinitely();
+
+        try {
+            appLifecycleBean.ensureIndexes().await().indefinitely();
+
+            assertThat(metricValue("application_mongodb_indexes_missing"), is(1.0));
+            assertThat(metricValue("application_mongodb_indexes_extra"), is(0.0));
+        } finally {
+            collection.dropIndex("active_companies_idx").await().indefinitely();
+            appLifecycleBean.ensureIndexes().await().indefinitely();
+        }
+    }
+
+    @Test
+    public void testCompanyCacheShouldEvictChangedCompanies() throws InterruptedException {
+        Company company = new Company();
+        company.name = "Test";
+        company.createdByUser = "admin";
+        company.persist().await().indefinitely();
+        String id = company.id.toString();
+
+        CompanyDto cached = companyCache.get(id, () -> companyCache.readThrough(id, Uni.createFrom().item(new CompanyDto()))).await().indefinitely();
+        assertThat(companyCache.get(id, () -> Uni.createFrom().nullItem()).await().indefinitely(), is(cached));
+
+        company.name = "Test changed";
+        company.update().await().indefinitely();
+
+        CompanyDto afterUpdate = cached;
+        for (int i = 0; i < 100 && afterUpdate != null; i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            afterUpdate = companyCache.get(id, () -> Uni.createFrom().nullItem()).await().indefinitely();
+        }
+        assertNull(afterUpdate);
+    }
+
+    @Test
+    public void testCompanyCacheShouldNotCacheCompaniesInvalidatedWhileRead() {
+        String id = new ObjectId().toString();
+        CompletableFuture<CompanyDto> read = new CompletableFuture<>();
+
+        CompletableFuture<CompanyDto> loaded = companyCache.get(id, () -> companyCache.readThrough(id, Uni.createFrom().completionStage(read)))
+                .subscribeAsCompletionStage();
+        companyCache.invalidate(id);
+        read.complete(new CompanyDto());
+
+        assertThat(loaded.join(), is(notNullValue()));
+        assertNull(companyCache.get(id, () -> Uni.createFrom().nullItem()).await().indefinitely());
+    }
+
+    /**
+     * Cursors of the companies of a page read by an admin.
+     */
+    private List<String> adminPage(String uri) {
+        return client.get(uri)
+                .basicAuthentication("admin", "admin")
+                .send()
+                .onItem().apply(res -> sseFields(res.bodyAsString(), "id:"))
+                .await().indefinitely();
+    }
+
+    /**
+     * Sum of the application metric series with the given tags.
+     */
+    private double metricValue(String name, String... tags) {
+        String metrics = given()
+                .when()
+                .get("/metrics/application")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        return Stream.of(metrics.split("\n"))
+                .filter(l -> l.startsWith(name + "{") && Stream.of(tags).allMatch(l::contains))
+                .mapToDouble(l -> Double.parseDouble(l.substring(l.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+
+    private StringBuffer stream(HttpClient httpClient, String user) {
+        StringBuffer body = new StringBuffer();
+        httpClient.get("/api/companies/stream")
+                .putHeader(HttpHeaders.AUTHORIZATION.toString(), "Basic " + Base64.getEncoder().encodeToString((user + ":" + user).getBytes(StandardCharsets.UTF_8)))
+                .handler(res -> res.handler(b -> body.append(b.toString())))
+                .end();
+        return body;
+    }
+
+    /**
+     * Types of the complete events about the company.
+     */
+    private List<String> eventTypes(StringBuffer body, String id) {
+        String events = body.toString();
+        return Stream.of(events.substring(0, events.lastIndexOf("\n\n") + 1).split("\n\n"))
+                .filter(e -> sseFields(e, "data:").stream().anyMatch(d -> d.contains(id)))
+                .flatMap(e -> sseFields(e, "event:").stream())
+                .collect(Collectors.toList());
+    }
+
+    private void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertThat(condition.getAsBoolean(), is(true));
+    }
+
+    private List<String> sseFields(String body, String field) {
+        return Stream.of(StringUtils.defaultString(body).split("\n"))
+                .filter(l -> l.startsWith(field))
+                .map(l -> l.substring(field.length()).trim())
+                .collect(Collectors.toList());
+    }
+
 }
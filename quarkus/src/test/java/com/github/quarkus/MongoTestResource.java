@@ -3,15 +3,21 @@ package com.github.quarkus;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
 import de.flapdoodle.embed.mongo.MongodExecutable;
 import de.flapdoodle.embed.mongo.MongodProcess;
 import de.flapdoodle.embed.mongo.MongodStarter;
 import de.flapdoodle.embed.mongo.config.IMongodConfig;
 import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
 import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.config.Storage;
 import de.flapdoodle.embed.mongo.distribution.Version;
 import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import org.bson.Document;
 import org.jboss.logging.Logger;
 
 public class MongoTestResource implements QuarkusTestResourceLifecycleManager {
@@ -19,6 +25,8 @@ public class MongoTestResource implements QuarkusTestResourceLifecycleManager {
 
 	private static final Logger LOGGER = Logger.getLogger(MongoTestResource.class);
 
+	private static final String REPLICA_SET = "rs0";
+
 	@Override
 	public Map<String, String> start() {
 		try {
@@ -26,18 +34,37 @@ public class MongoTestResource implements QuarkusTestResourceLifecycleManager {
 			IMongodConfig config = new MongodConfigBuilder()
 					.version(version)
 					.net(new Net())
+					.replication(new Storage(null, REPLICA_SET, 0))
 					.build();
 			MONGO = MongodStarter.getDefaultInstance().prepare(config);
 			MongodProcess mongodProcess = MONGO.start();
 			int port = mongodProcess.getConfig().net().getPort();
-			LOGGER.infof("Started Embedded Mongo %s on port %s", version, port);
+			initiateReplicaSet(port);
+			LOGGER.infof("Started Embedded Mongo %s on port %s as replica set %s", version, port, REPLICA_SET);
 			System.setProperty("EMBEDDED_MONGO_PORT", String.valueOf(port));
 		} catch (IOException e) {
 			throw new RuntimeException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
 		}
 		return Collections.emptyMap();
 	}
 
+	/**
+	 * Change streams are only available on replica sets so start mongo as a single node replica set.
+	 */
+	private void initiateReplicaSet(int port) throws InterruptedException {
+		try (MongoClient client = MongoClients.create(String.format("mongodb://localhost:%s", port))) {
+			MongoDatabase admin = client.getDatabase("admin");
+			admin.runCommand(new Document("replSetInitiate", new Document("_id", REPLICA_SET)
+					.append("members", Collections.singletonList(new Document("_id", 0).append("host", "localhost:" + port)))));
+			while (!admin.runCommand(new Document("isMaster", 1)).getBoolean("ismaster", false)) {
+				TimeUnit.MILLISECONDS.sleep(100);
+			}
+		}
+	}
+
 	@Override
 	public void stop() {
 		if (MONGO != null) {
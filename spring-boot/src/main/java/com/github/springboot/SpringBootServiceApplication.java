@@ -20,18 +20,33 @@ import java.util.Base64;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.github.springboot.config.AdminCompaniesCacheProperties;
+import com.github.springboot.config.AdmissionControlProperties;
+import com.github.springboot.config.CompanyBulkProperties;
+import com.github.springboot.config.CompanyCacheProperties;
+import com.github.springboot.config.CompanyStreamProperties;
+import com.github.springboot.config.JwtCacheProperties;
 import com.github.springboot.config.JwtConfigurationProperties;
+import com.github.springboot.config.MongoConnectionPoolMetrics;
+import com.github.springboot.config.MongoPoolProperties;
+import com.github.springboot.config.RateLimitProperties;
+import com.github.springboot.config.RequestDeadlineProperties;
 import com.github.springboot.model.Company;
 import com.github.springboot.repository.CompanyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import reactor.core.publisher.Flux;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.reactive.context.GenericReactiveWebApplicationContext;
@@ -47,7 +62,9 @@ import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 @Slf4j
 @SpringBootApplication
-@EnableConfigurationProperties(JwtConfigurationProperties.class)
+@EnableConfigurationProperties({JwtConfigurationProperties.class, CompanyCacheProperties.class, CompanyBulkProperties.class, JwtCacheProperties.class,
+    MongoPoolProperties.class, CompanyStreamProperties.class, AdminCompaniesCacheProperties.class,
+    AdmissionControlProperties.class, RateLimitProperties.class, RequestDeadlineProperties.class})
 public class SpringBootServiceApplication {
     public static void main(String[] args) {
         new SpringApplicationBuilder(SpringBootServiceApplication.class)
@@ -147,6 +164,19 @@ public class SpringBootServiceApplication {
     @EnableMongoAuditing
     @EnableReactiveMongoRepositories(basePackageClasses = CompanyRepository.class)
     static class MongoConfiguration {
+        /**
+         * Pool sizes from mongodb.pool override the ones in the uri, command and pool metrics are only added when there is a registry.
+         */
+        @Bean
+        MongoClientSettingsBuilderCustomizer mongoClientSettingsCustomizer(MongoPoolProperties mongoPoolProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+            return builder -> {
+                builder.applyToConnectionPoolSettings(pool -> pool.minSize(mongoPoolProperties.getMinSize())
+                    .maxSize(mongoPoolProperties.getMaxSize()));
+                meterRegistry.ifAvailable(registry -> builder.addCommandListener(new MongoMetricsCommandListener(registry))
+                    .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(registry))
+                        .addConnectionPoolListener(new MongoConnectionPoolMetrics(registry))));
+            };
+        }
     }
 
     @Bean
@@ -0,0 +1,47 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings for the snapshots of the first page of active companies served to admins.
+ */
+@Data
+@ConfigurationProperties(prefix = "cache.admin-companies")
+@Validated
+public class AdminCompaniesCacheProperties {
+    private boolean enabled = true;
+
+    /**
+     * Age after which the next request still gets the snapshot but triggers a refresh in background.
+     */
+    @NotNull
+    private Duration refreshAfterWrite = Duration.ofSeconds(2);
+
+    /**
+     * Age after which a snapshot nobody asked to refresh is dropped, the next request waits for a new one.
+     */
+    @NotNull
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+
+    /**
+     * Page sizes kept, one snapshot each.
+     */
+    @NotNull
+    @Positive
+    private Long maximumSize = 16L;
+
+    /**
+     * Larger pages are always read from mongo.
+     */
+    @NotNull
+    @Positive
+    private Integer maximumPageSize = 100;
+}
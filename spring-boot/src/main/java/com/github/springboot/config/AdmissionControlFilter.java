@@ -0,0 +1,114 @@
+package com.github.springboot.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Admission control of the company api: requests over the {@link AdaptiveConcurrencyLimit} of reads or writes are answered
+ * right away with 503 and Retry-After, before authentication, so the admitted ones keep answering within the latency threshold.
+ * <p>
+ * Streams, exports and bulk imports are long lived by design and are not limited, their duration says nothing about the load.
+ * Limit, in flight and rejected are exported as admission.limit, admission.in.flight and admission.rejected tagged by type.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionControlFilter implements WebFilter {
+    static final String LIMIT_METRIC = "admission.limit";
+
+    static final String IN_FLIGHT_METRIC = "admission.in.flight";
+
+    static final String REJECTED_METRIC = "admission.rejected";
+
+    private static final String ADMITTED_PATTERN = "/api/companies/**";
+
+    private static final List<String> UNLIMITED_PATTERNS = Arrays.asList("/api/companies/stream", "/api/companies/export", "/api/companies/bulk");
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final AdmissionControlProperties properties;
+
+    private final Admission read;
+
+    private final Admission write;
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.read = new Admission("read", properties.getRead().create(properties.getBackoffRatio()), registry);
+        this.write = new Admission("write", properties.getWrite().create(properties.getBackoffRatio()), registry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!properties.isEnabled() || !isLimited(path)) {
+            return chain.filter(exchange);
+        }
+        HttpMethod method = exchange.getRequest().getMethod();
+        Admission admission = (method == HttpMethod.GET || method == HttpMethod.HEAD ? read : write);
+        if (!admission.limit.tryAcquire()) {
+            admission.rejected.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getRetryAfter().getSeconds())));
+            return response.setComplete();
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doFinally(s -> {
+                if (s == SignalType.CANCEL) {
+                    admission.limit.ignore();
+                } else {
+                    HttpStatus status = exchange.getResponse().getStatusCode();
+                    admission.limit.release(System.nanoTime() - start, s == SignalType.ON_ERROR || (status != null && status.is5xxServerError()));
+                }
+            });
+    }
+
+    private boolean isLimited(String path) {
+        return pathMatcher.match(ADMITTED_PATTERN, path) && UNLIMITED_PATTERNS.stream().noneMatch(p -> pathMatcher.match(p, path));
+    }
+
+    private static class Admission {
+        private final AdaptiveConcurrencyLimit limit;
+
+        private final Counter rejected;
+
+        Admission(String type, AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+            this.limit = limit;
+            Gauge.builder(LIMIT_METRIC, limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("the number of concurrent requests admitted")
+                .tag("type", type)
+                .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("the number of admitted requests not answered yet")
+                .tag("type", type)
+                .register(meterRegistry);
+            this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("the number of requests answered with 503 because the limit was reached")
+                .tag("type", type)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings for the adaptive concurrency limits in front of the company api, reads and writes are limited separately.
+ */
+@Data
+@ConfigurationProperties(prefix = "admission.companies")
+@Validated
+public class AdmissionControlProperties {
+    private boolean enabled = true;
+
+    /**
+     * Sent as Retry-After with the 503 of a rejected request, in whole seconds.
+     */
+    @NotNull
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Ratio the limit is multiplied by after a slow or failed request.
+     */
+    @NotNull
+    @DecimalMin("0.5")
+    @DecimalMax("0.99")
+    private Double backoffRatio = 0.9;
+
+    @Valid
+    @NotNull
+    private Limit read = new Limit(100, 10, 1000, Duration.ofMillis(250));
+
+    @Valid
+    @NotNull
+    private Limit write = new Limit(50, 5, 500, Duration.ofMillis(500));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        @NotNull
+        @Positive
+        private Integer initialLimit;
+
+        @NotNull
+        @Positive
+        private Integer minLimit;
+
+        @NotNull
+        @Positive
+        private Integer maxLimit;
+
+        /**
+         * Requests slower than this lower the limit.
+         */
+        @NotNull
+        private Duration latencyThreshold;
+
+        AdaptiveConcurrencyLimit create(double backoffRatio) {
+            return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.springboot.dto.CompanyDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process cache of companies by id, hit/miss/eviction counters are exported as cache.* metrics.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    @Bean
+    public Cache<String, CompanyDto> companyCache(CompanyCacheProperties properties, MeterRegistry meterRegistry) {
+        Cache<String, CompanyDto> cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getExpireAfterWrite())
+            .recordStats()
+            .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "companies");
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.springboot.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+/**
+ * Keep verified tokens until they expire so a token repeated by the same session is only verified once.
+ * Tokens are keyed by their sha-256 hash, failures and tokens without expiration are never cached.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+    private final ReactiveJwtDecoder delegate;
+
+    private final Cache<String, Jwt> cache;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new ExpiresAt())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        return Mono.defer(() -> {
+            String key = hash(token);
+            Jwt cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return delegate.decode(token)
+                .doOnNext(jwt -> {
+                    if (jwt.getExpiresAt() != null) {
+                        cache.put(key, jwt);
+                    }
+                });
+        });
+    }
+
+    /**
+     * Cache authentications converted from cached tokens, entries go away with the token instance they were built from.
+     * @param delegate converter
+     * @param maximumSize maximum number of authentications
+     * @return caching converter
+     */
+    public static Converter<Jwt, Mono<AbstractAuthenticationToken>> cachingConverter(Converter<Jwt, Mono<AbstractAuthenticationToken>> delegate, long maximumSize) {
+        Cache<Jwt, AbstractAuthenticationToken> authentications = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(maximumSize)
+            .build();
+        return jwt -> {
+            AbstractAuthenticationToken cached = authentications.getIfPresent(jwt);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            Mono<AbstractAuthenticationToken> authentication = delegate.convert(jwt);
+            return (authentication == null ? null : authentication.doOnNext(a -> authentications.put(jwt, a)));
+        };
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Expire each token at its own expiration time.
+     */
+    private static class ExpiresAt implements Expiry<String, Jwt> {
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.springboot.config;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings for bulk writes of companies.
+ */
+@Data
+@ConfigurationProperties(prefix = "bulk.companies")
+@Validated
+public class CompanyBulkProperties {
+    /**
+     * Number of companies sent to mongo per insertMany.
+     */
+    @NotNull
+    @Positive
+    private Integer chunkSize = 500;
+}
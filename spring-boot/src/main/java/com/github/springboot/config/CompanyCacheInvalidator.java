@@ -0,0 +1,93 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import com.github.springboot.model.Company;
+import com.github.springboot.service.CompanyCache;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evict companies changed by any replica from the local cache by tailing a change stream on the companies collection.
+ * The cache is cleared every time the stream (re)connects so events missed in between cannot leave stale entries.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "configuration", name = "mongo", havingValue = "true", matchIfMissing = true)
+public class CompanyCacheInvalidator implements DisposableBean {
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    private final CompanyCache companyCache;
+
+    private volatile Disposable subscription;
+
+    public CompanyCacheInvalidator(ReactiveMongoOperations mongoOperations, CompanyCache companyCache) {
+        this.mongoOperations = mongoOperations;
+        this.companyCache = companyCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        subscription = listen().subscribe();
+    }
+
+    /**
+     * Tail the companies collection evicting changed ids, retrying with backoff when the stream fails.
+     * @return changed ids
+     */
+    public Flux<String> listen() {
+        return mongoOperations.changeStream(mongoOperations.getCollectionName(Company.class), ChangeStreamOptions.empty(), Document.class)
+            .doOnSubscribe(s -> companyCache.invalidateAll())
+            .map(this::evict)
+            .onErrorResume(this::isChangeStreamNotSupported, e -> {
+                log.warn("Change streams are not supported by this deployment, cached companies expire by ttl only: {}", e.getMessage());
+                return Flux.empty();
+            })
+            .doOnError(e -> log.warn("Companies change stream failed, retrying", e))
+            .retryBackoff(Long.MAX_VALUE, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private String evict(ChangeStreamEvent<Document> event) {
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        BsonDocument documentKey = (raw != null ? raw.getDocumentKey() : null);
+        if (documentKey == null || !documentKey.containsKey("_id")) {
+            log.debug("Clearing cached companies on {} event", event.getOperationType());
+            companyCache.invalidateAll();
+            return "";
+        }
+        BsonValue value = documentKey.get("_id");
+        String id = (value.isObjectId() ? value.asObjectId().getValue().toHexString() : value.asString().getValue());
+        log.debug("Evicting cached company({}) on {} event", id, event.getOperationType());
+        companyCache.invalidate(id);
+        return id;
+    }
+
+    private boolean isChangeStreamNotSupported(Throwable e) {
+        Throwable cause = (e.getCause() != null ? e.getCause() : e);
+        return (cause instanceof MongoCommandException && ((MongoCommandException) cause).getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED);
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@ConfigurationProperties(prefix = "cache.companies")
+@Validated
+public class CompanyCacheProperties {
+    @NotNull
+    @PositiveOrZero
+    private Long maximumSize = 10000L;
+
+    @NotNull
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
@@ -0,0 +1,161 @@
+package com.github.springboot.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import com.github.springboot.model.Company;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Create indexes declared on {@link Company} as partial indexes on active companies
+ * and report indexes missing from or not declared for the collection.
+ * An index named as declared but with other keys or partial filter counts as missing, queries would not use it as planned.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "configuration", name = "mongo", havingValue = "true", matchIfMissing = true)
+public class CompanyIndexManager {
+    private static final String DEFAULT_ID_INDEX = "_id_";
+
+    private static final Document DEFAULT_ID_KEYS = new Document("_id", 1);
+
+    private static final Document ACTIVE_COMPANIES = new Document("activated", true);
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    private final IndexResolver indexResolver;
+
+    private final AtomicInteger missingIndexes = new AtomicInteger();
+
+    private final AtomicInteger extraIndexes = new AtomicInteger();
+
+    public CompanyIndexManager(ReactiveMongoOperations mongoOperations, MeterRegistry meterRegistry) {
+        this.mongoOperations = mongoOperations;
+        this.indexResolver = IndexResolver.create(mongoOperations.getConverter().getMappingContext());
+        Tags tags = Tags.of("collection", mongoOperations.getCollectionName(Company.class));
+        meterRegistry.gauge("mongodb.indexes.missing", tags, missingIndexes);
+        meterRegistry.gauge("mongodb.indexes.extra", tags, extraIndexes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureIndexes().subscribe(null, e -> log.error("Could not verify indexes", e));
+    }
+
+    /**
+     * Create declared indexes and update missing/extra index gauges.
+     * @return completion once indexes were verified
+     */
+    public Mono<Void> ensureIndexes() {
+        ReactiveIndexOperations indexOperations = mongoOperations.indexOps(Company.class);
+        List<IndexDefinition> indexes = StreamSupport.stream(indexResolver.resolveIndexFor(Company.class).spliterator(), false)
+            .map(PartialIndexDefinition::new)
+            .collect(Collectors.toList());
+
+        return Flux.fromIterable(indexes)
+            .concatMap(index -> indexOperations.ensureIndex(index)
+                .doOnNext(name -> log.debug("Ensured index: {}", name))
+                .onErrorResume(e -> {
+                    log.error("Could not create index: {}", index.getIndexOptions().get("name"), e);
+                    return Mono.empty();
+                }))
+            .thenMany(Flux.defer(() -> mongoOperations.getCollection(mongoOperations.getCollectionName(Company.class)).listIndexes()))
+            .collectMap(index -> index.getString("name"), index -> index, TreeMap::new)
+            .doOnNext(existing -> verifyIndexes(indexes, existing))
+            .then();
+    }
+
+    private void verifyIndexes(List<IndexDefinition> indexes, Map<String, Document> existing) {
+        Map<String, Document> declared = new TreeMap<>();
+        indexes.forEach(index -> declared.put(index.getIndexOptions().getString("name"), new Document("key", index.getIndexKeys())
+            .append("partialFilterExpression", index.getIndexOptions().get("partialFilterExpression"))));
+        declared.put(DEFAULT_ID_INDEX, new Document("key", DEFAULT_ID_KEYS));
+
+        Set<String> missing = new TreeSet<>();
+        Set<String> mismatched = new TreeSet<>();
+        declared.forEach((name, index) -> {
+            Document found = existing.get(name);
+            if (found == null) {
+                missing.add(name);
+            } else if (!sameKeys(index.get("key", Document.class), found.get("key", Document.class))
+                || !Objects.equals(index.get("partialFilterExpression"), found.get("partialFilterExpression"))) {
+                mismatched.add(name);
+            }
+        });
+        Set<String> extra = new TreeSet<>(existing.keySet());
+        extra.removeAll(declared.keySet());
+
+        missingIndexes.set(missing.size() + mismatched.size());
+        extraIndexes.set(extra.size());
+        if (!missing.isEmpty()) {
+            log.warn("Missing indexes on {}: {}", mongoOperations.getCollectionName(Company.class), missing);
+        }
+        if (!mismatched.isEmpty()) {
+            log.warn("Indexes on {} not matching their declaration: {}", mongoOperations.getCollectionName(Company.class), mismatched);
+        }
+        if (!extra.isEmpty()) {
+            log.warn("Indexes not declared on {}: {}", mongoOperations.getCollectionName(Company.class), extra);
+        }
+    }
+
+    /**
+     * Same fields in the same order and direction, mongo may return a direction as another number type than declared.
+     */
+    private static boolean sameKeys(Document declared, Document found) {
+        if (found == null || !new ArrayList<>(declared.keySet()).equals(new ArrayList<>(found.keySet()))) {
+            return false;
+        }
+        return declared.keySet().stream().allMatch(field -> {
+            Object direction = declared.get(field);
+            Object foundDirection = found.get(field);
+            if (direction instanceof Number && foundDirection instanceof Number) {
+                return ((Number) direction).doubleValue() == ((Number) foundDirection).doubleValue();
+            }
+            return Objects.equals(direction, foundDirection);
+        });
+    }
+
+    /**
+     * Queries only ever look at active companies, so indexes skip inactive ones.
+     */
+    private static class PartialIndexDefinition implements IndexDefinition {
+        private final IndexDefinition index;
+
+        PartialIndexDefinition(IndexDefinition index) {
+            this.index = index;
+        }
+
+        @Override
+        public Document getIndexKeys() {
+            return index.getIndexKeys();
+        }
+
+        @Override
+        public Document getIndexOptions() {
+            return new Document(index.getIndexOptions())
+                .append("partialFilterExpression", ACTIVE_COMPANIES);
+        }
+    }
+}
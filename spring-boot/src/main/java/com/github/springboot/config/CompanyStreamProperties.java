@@ -0,0 +1,39 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings for the live stream of company changes.
+ */
+@Data
+@ConfigurationProperties(prefix = "stream.companies")
+@Validated
+public class CompanyStreamProperties {
+    /**
+     * Interval of the comments keeping idle connections open through proxies.
+     */
+    @NotNull
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /**
+     * Changes kept per connection for a slow client before it is asked to resync.
+     */
+    @NotNull
+    @Positive
+    private Integer bufferSize = 256;
+
+    /**
+     * Owners of companies remembered to route delete events, which carry only the id.
+     */
+    @NotNull
+    @Positive
+    private Long ownersMaximumSize = 100_000L;
+}
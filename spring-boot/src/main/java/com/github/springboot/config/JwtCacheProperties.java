@@ -0,0 +1,20 @@
+package com.github.springboot.config;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@ConfigurationProperties(prefix = "cache.jwt")
+@Validated
+public class JwtCacheProperties {
+    private boolean enabled = true;
+
+    @NotNull
+    @PositiveOrZero
+    private Long maximumSize = 10000L;
+}
@@ -0,0 +1,139 @@
+package com.github.springboot.config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolOpenedEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import com.mongodb.event.ConnectionRemovedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pool metrics not covered by micrometer mongodb.driver.pool.* gauges: idle connections, time waited for a connection
+ * and how often the pool was exhausted.
+ * <p>
+ * The async driver only enters the wait queue when no connection is available and serves the queue in order,
+ * so waits are matched first in first out per server.
+ */
+public class MongoConnectionPoolMetrics extends ConnectionPoolListenerAdapter {
+    static final String IDLE_METRIC = "mongodb.driver.pool.idle";
+
+    static final String WAIT_METRIC = "mongodb.driver.pool.wait";
+
+    static final String EXHAUSTED_METRIC = "mongodb.driver.pool.exhausted";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ServerId, Pool> pools = new ConcurrentHashMap<>();
+
+    public MongoConnectionPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionPoolOpened(ConnectionPoolOpenedEvent event) {
+        pools.computeIfAbsent(event.getServerId(), this::register);
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        Pool pool = pools.remove(event.getServerId());
+        if (pool != null) {
+            pool.meters().forEach(meterRegistry::remove);
+        }
+    }
+
+    @Override
+    public void connectionAdded(ConnectionAddedEvent event) {
+        pool(event.getConnectionId().getServerId()).size.incrementAndGet();
+    }
+
+    @Override
+    public void connectionRemoved(ConnectionRemovedEvent event) {
+        pool(event.getConnectionId().getServerId()).size.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        pool(event.getConnectionId().getServerId()).checkedOut.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        pool(event.getConnectionId().getServerId()).checkedOut.decrementAndGet();
+    }
+
+    @Override
+    public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) {
+        Pool pool = pool(event.getServerId());
+        pool.exhausted.increment();
+        pool.waiting.add(System.nanoTime());
+    }
+
+    @Override
+    public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) {
+        Pool pool = pool(event.getServerId());
+        Long start = pool.waiting.poll();
+        if (start != null) {
+            pool.wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Pool pool(ServerId serverId) {
+        return pools.computeIfAbsent(serverId, this::register);
+    }
+
+    private Pool register(ServerId serverId) {
+        Tags tags = Tags.of("cluster.id", serverId.getClusterId().getValue(), "server.address", serverId.getAddress().toString());
+        Pool pool = new Pool();
+        pool.idle = Gauge.builder(IDLE_METRIC, pool, p -> Math.max(0, p.size.get() - p.checkedOut.get()))
+            .description("the number of connections in the pool not checked out")
+            .tags(tags)
+            .register(meterRegistry);
+        pool.wait = Timer.builder(WAIT_METRIC)
+            .description("the time waited for a connection when none was available")
+            .tags(tags)
+            .register(meterRegistry);
+        pool.exhausted = Counter.builder(EXHAUSTED_METRIC)
+            .description("the number of checkouts that found no available connection and had to wait")
+            .tags(tags)
+            .register(meterRegistry);
+        return pool;
+    }
+
+    private static class Pool {
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final AtomicInteger checkedOut = new AtomicInteger();
+
+        private final Queue<Long> waiting = new ConcurrentLinkedQueue<>();
+
+        private Gauge idle;
+
+        private Timer wait;
+
+        private Counter exhausted;
+
+        private List<Meter> meters() {
+            return Arrays.asList(idle, wait, exhausted);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.springboot.config;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@ConfigurationProperties(prefix = "mongodb.pool")
+@Validated
+public class MongoPoolProperties {
+    @NotNull
+    @PositiveOrZero
+    private Integer minSize = 10;
+
+    @NotNull
+    @Positive
+    private Integer maxSize = 50;
+
+    @AssertTrue(message = "min-size must not be greater than max-size")
+    public boolean isMinSizeNotGreaterThanMaxSize() {
+        return minSize == null || maxSize == null || minSize <= maxSize;
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.springboot.config;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Rate limit of the company api per user(the sub of the token), so a single client cannot starve the others:
+ * requests over the rate of the user are answered with 429 and Retry-After, the time until its next permit.
+ * <p>
+ * It runs after spring security, requests without an authenticated user are left to it.
+ * Rejected requests are exported as ratelimit.rejected tagged by the role of the rate, never by user, and buckets as ratelimit.buckets.
+ */
+@Component
+public class RateLimitFilter implements WebFilter {
+    static final String REJECTED_METRIC = "ratelimit.rejected";
+
+    static final String BUCKETS_METRIC = "ratelimit.buckets";
+
+    static final String DEFAULT_ROLE = "default";
+
+    private static final String LIMITED_PATTERN = "/api/companies/**";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final RateLimitProperties properties;
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    private final RoleRate defaultRate;
+
+    private final List<RoleRate> roleRates;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.rateLimiter = new TokenBucketRateLimiter(properties.getIdleTimeout(), properties.getMaximumSize());
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.defaultRate = new RoleRate(DEFAULT_ROLE, properties.getDefaultLimit(), registry);
+        // highest rate first, the first role the user has wins
+        this.roleRates = properties.getRoles().entrySet().stream()
+            .map(e -> new RoleRate(e.getKey(), e.getValue(), registry))
+            .sorted(Comparator.comparingDouble((RoleRate r) -> r.permitsPerSecond).reversed())
+            .collect(Collectors.toList());
+        Gauge.builder(BUCKETS_METRIC, rateLimiter, TokenBucketRateLimiter::size)
+            .description("the number of users with a rate limit bucket")
+            .register(registry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !pathMatcher.match(LIMITED_PATTERN, exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+            .filter(p -> p instanceof Authentication)
+            .map(p -> tryAcquire((Authentication) p))
+            .defaultIfEmpty(0L)
+            .flatMap(wait -> {
+                if (wait == 0) {
+                    return chain.filter(exchange);
+                }
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+                return response.setComplete();
+            });
+    }
+
+    /**
+     * @return 0 when the request may run, otherwise the nanoseconds until the next permit of the user
+     */
+    private long tryAcquire(Authentication authentication) {
+        RoleRate roleRate = rateOf(authentication);
+        long wait = rateLimiter.tryAcquire(authentication.getName(), roleRate.rate);
+        if (wait > 0) {
+            roleRate.rejected.increment();
+        }
+        return wait;
+    }
+
+    private RoleRate rateOf(Authentication authentication) {
+        for (RoleRate roleRate : roleRates) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (roleRate.role.equals(authority.getAuthority())) {
+                    return roleRate;
+                }
+            }
+        }
+        return defaultRate;
+    }
+
+    private static class RoleRate {
+        private final String role;
+
+        private final double permitsPerSecond;
+
+        private final TokenBucketRateLimiter.Rate rate;
+
+        private final Counter rejected;
+
+        RoleRate(String role, RateLimitProperties.Limit limit, MeterRegistry meterRegistry) {
+            this.role = role;
+            this.permitsPerSecond = limit.getPermitsPerSecond();
+            this.rate = limit.create();
+            this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("the number of requests answered with 429 because the user was over its rate")
+                .tag("role", role)
+                .register(meterRegistry);
+        }
+    }
+}
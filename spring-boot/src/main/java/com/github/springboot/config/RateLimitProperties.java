@@ -0,0 +1,67 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings for the rate limit per user of the company api, a user gets the highest rate of its roles or the default rate.
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit.companies")
+@Validated
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * Buckets not used for this long are evicted, it should be longer than burst / permits per second of every rate.
+     */
+    @NotNull
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of users with a bucket.
+     */
+    @NotNull
+    @Positive
+    private Long maximumSize = 100_000L;
+
+    @Valid
+    @NotNull
+    private Limit defaultLimit = new Limit(10.0, 20);
+
+    /**
+     * Rate per role, e.g. ROLE_ADMIN.
+     */
+    @Valid
+    @NotNull
+    private Map<String, Limit> roles = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        @NotNull
+        @Positive
+        private Double permitsPerSecond;
+
+        @NotNull
+        @Positive
+        private Integer burst;
+
+        TokenBucketRateLimiter.Rate create() {
+            return new TokenBucketRateLimiter.Rate(permitsPerSecond, burst);
+        }
+    }
+}
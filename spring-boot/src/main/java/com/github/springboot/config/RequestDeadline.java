@@ -0,0 +1,70 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import reactor.util.context.Context;
+
+/**
+ * Point in time a request must be answered by, carried in the reactor context from {@link RequestDeadlineFilter}
+ * down to the mongo queries, which are sent with the remaining time as maxTimeMS.
+ */
+public final class RequestDeadline {
+    private static final Object KEY = RequestDeadline.class;
+
+    private final long deadlineNanos;
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static RequestDeadline after(Duration timeout) {
+        return new RequestDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @return deadline of the request the context belongs to, empty outside of a request or on routes without deadline
+     */
+    public static Optional<RequestDeadline> from(Context context) {
+        return context.getOrEmpty(KEY);
+    }
+
+    /**
+     * @return whether the failure is mongo aborting an operation over its maxTimeMS
+     */
+    public static boolean isMongoTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoExecutionTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the context with the deadline, the deadline removed when null
+     */
+    public static Context replaceIn(Context context, RequestDeadline deadline) {
+        return (deadline == null ? context.delete(KEY) : deadline.addTo(context));
+    }
+
+    public Context addTo(Context context) {
+        return context.put(KEY, this);
+    }
+
+    /**
+     * @return time left, zero or negative once expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isAfter(RequestDeadline other) {
+        return deadlineNanos - other.deadlineNanos > 0;
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+}
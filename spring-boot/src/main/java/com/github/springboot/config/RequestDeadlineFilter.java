@@ -0,0 +1,120 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Deadline of the company api: the client sends the time it waits as X-Request-Timeout(milliseconds) or X-Request-Deadline
+ * (epoch milliseconds), otherwise the read or write timeout is used, capped by the max timeout.
+ * <p>
+ * The deadline is put in the reactor context for the mongo queries and the request is cancelled once it expires, which cancels
+ * the driver operation, and answered with 504. Streams, exports and bulk inserts are long lived by design and have no deadline.
+ * Expired requests are exported as deadline.expired tagged by type and cause, inbound(already expired when received), timeout or mongodb(maxTimeMS).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestDeadlineFilter implements WebFilter {
+    static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    static final String EXPIRED_METRIC = "deadline.expired";
+
+    private static final String LIMITED_PATTERN = "/api/companies/**";
+
+    private static final List<String> UNLIMITED_PATTERNS = Arrays.asList("/api/companies/stream", "/api/companies/export", "/api/companies/bulk");
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final RequestDeadlineProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestDeadlineFilter(RequestDeadlineProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!properties.isEnabled() || !isLimited(path)) {
+            return chain.filter(exchange);
+        }
+        HttpMethod method = exchange.getRequest().getMethod();
+        String type = (method == HttpMethod.GET || method == HttpMethod.HEAD ? "read" : "write");
+        Duration timeout;
+        try {
+            timeout = timeout(exchange.getRequest().getHeaders(), ("read".equals(type) ? properties.getReadTimeout() : properties.getWriteTimeout()));
+        } catch (NumberFormatException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format("%s and %s must be milliseconds", TIMEOUT_HEADER, DEADLINE_HEADER)));
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            return expired(exchange, type, "inbound", null);
+        }
+        RequestDeadline deadline = RequestDeadline.after(timeout);
+        return chain.filter(exchange)
+            .timeout(timeout)
+            .onErrorResume(e -> e instanceof TimeoutException || RequestDeadline.isMongoTimeout(e),
+                e -> expired(exchange, type, (e instanceof TimeoutException ? "timeout" : "mongodb"), e))
+            .subscriberContext(deadline::addTo);
+    }
+
+    private Duration timeout(HttpHeaders headers, Duration defaultTimeout) {
+        String timeoutHeader = headers.getFirst(TIMEOUT_HEADER);
+        String deadlineHeader = headers.getFirst(DEADLINE_HEADER);
+        if (timeoutHeader == null && deadlineHeader == null) {
+            return defaultTimeout;
+        }
+        Duration timeout = properties.getMaxTimeout();
+        if (timeoutHeader != null) {
+            timeout = min(timeout, Duration.ofMillis(Long.parseLong(timeoutHeader.trim())));
+        }
+        if (deadlineHeader != null) {
+            timeout = min(timeout, Duration.ofMillis(Long.parseLong(deadlineHeader.trim()) - System.currentTimeMillis()));
+        }
+        return timeout;
+    }
+
+    /**
+     * A response already being written, e.g. a page of companies, can only be cut short.
+     */
+    private Mono<Void> expired(ServerWebExchange exchange, String type, String cause, Throwable error) {
+        meterRegistry.counter(EXPIRED_METRIC, "type", type, "cause", cause).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(error);
+        }
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return response.setComplete();
+    }
+
+    private boolean isLimited(String path) {
+        return pathMatcher.match(LIMITED_PATTERN, path) && UNLIMITED_PATTERNS.stream().noneMatch(p -> pathMatcher.match(p, path));
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return (a.compareTo(b) <= 0 ? a : b);
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import javax.validation.constraints.NotNull;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings for the deadlines of the company api, used when the client did not send X-Request-Timeout or X-Request-Deadline.
+ */
+@Data
+@ConfigurationProperties(prefix = "deadline.companies")
+@Validated
+public class RequestDeadlineProperties {
+    private boolean enabled = true;
+
+    /**
+     * Default time to answer a GET.
+     */
+    @NotNull
+    private Duration readTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Default time to answer a POST, PUT or DELETE.
+     */
+    @NotNull
+    private Duration writeTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Longest time a client may ask for.
+     */
+    @NotNull
+    private Duration maxTimeout = Duration.ofSeconds(30);
+}
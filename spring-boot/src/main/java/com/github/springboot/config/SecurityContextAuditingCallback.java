@@ -0,0 +1,62 @@
+package com.github.springboot.config;
+
+import com.github.springboot.model.Company;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class for auditing mongo entities changes.
+ * The user is read from the subscriber context of each save so concurrent requests never share it.
+ */
+@Component
+public class SecurityContextAuditingCallback implements ReactiveBeforeConvertCallback<Company>, Ordered {
+    static final String DEFAULT_AUDITOR = "default@admin.com";
+
+    /**
+     * Return current logged user of the subscriber context.
+     * @return current user or empty when there is no authenticated user
+     */
+    public Mono<String> getCurrentAuditor() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .filter(Authentication::isAuthenticated)
+            .map(Authentication::getName);
+    }
+
+    @Override
+    public Mono<Company> onBeforeConvert(Company company, String collection) {
+        return getCurrentAuditor()
+            .map(user -> {
+                if (company.getId() == null) {
+                    company.setCreatedByUser(user);
+                }
+                company.setLastModifiedByUser(user);
+                return company;
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                if (company.getCreatedByUser() == null) {
+                    company.setCreatedByUser(DEFAULT_AUDITOR);
+                }
+                if (company.getLastModifiedByUser() == null) {
+                    company.setLastModifiedByUser(DEFAULT_AUDITOR);
+                }
+                return company;
+            }));
+    }
+
+    /**
+     * Run after the auditing callback so the dates are already set.
+     * @return order
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+}
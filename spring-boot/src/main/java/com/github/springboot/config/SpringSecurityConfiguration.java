@@ -2,9 +2,12 @@ package com.github.springboot.config;
 
 import java.security.interfaces.RSAPublicKey;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.AllArgsConstructor;
 import reactor.core.publisher.Mono;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -29,6 +32,7 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 @EnableWebFluxSecurity
 @EnableReactiveMethodSecurity
 public class SpringSecurityConfiguration {
+    private final JwtCacheProperties jwtCacheProperties;
 
     private static final String[] WHITELIST = {
         // -- swagger ui
@@ -46,8 +50,12 @@ public class SpringSecurityConfiguration {
     };
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(RSAPublicKey publicKey) {
-        return NimbusReactiveJwtDecoder.withPublicKey(publicKey).build();
+    public ReactiveJwtDecoder jwtDecoder(RSAPublicKey publicKey, ObjectProvider<MeterRegistry> meterRegistry) {
+        ReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withPublicKey(publicKey).build();
+        if (jwtCacheProperties.isEnabled()) {
+            return new CachingReactiveJwtDecoder(jwtDecoder, jwtCacheProperties.getMaximumSize(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        }
+        return jwtDecoder;
     }
 
     @Bean
@@ -72,7 +80,11 @@ public class SpringSecurityConfiguration {
 
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
         jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
-        return new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter);
+        Converter<Jwt, Mono<AbstractAuthenticationToken>> converter = new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter);
+        if (jwtCacheProperties.isEnabled()) {
+            return CachingReactiveJwtDecoder.cachingConverter(converter, jwtCacheProperties.getMaximumSize());
+        }
+        return converter;
     }
 
 }
@@ -0,0 +1,76 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Token bucket per key, kept as the time the bucket is empty again(GCRA) in one {@link AtomicLong} updated by compare and set,
+ * so there is no lock on the hot path: buckets are found in the striped, lock free reads of a caffeine cache.
+ * <p>
+ * Buckets idle for the idle timeout are evicted, a bucket idle for longer than burst / permits per second is full again
+ * so evicting it loses nothing. The maximum size bounds the memory when many keys show up at once.
+ */
+public class TokenBucketRateLimiter {
+    private final Cache<String, AtomicLong> buckets;
+
+    private final Ticker ticker;
+
+    public TokenBucketRateLimiter(Duration idleTimeout, long maximumSize) {
+        this(idleTimeout, maximumSize, Ticker.systemTicker());
+    }
+
+    TokenBucketRateLimiter(Duration idleTimeout, long maximumSize, Ticker ticker) {
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .maximumSize(maximumSize)
+            .ticker(ticker)
+            .build();
+    }
+
+    /**
+     * @return 0 when a permit was taken, otherwise the nanoseconds until the next permit
+     */
+    public long tryAcquire(String key, Rate rate) {
+        long now = ticker.read();
+        AtomicLong emptyAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long current = emptyAt.get();
+            long next = Math.max(current, now) + rate.intervalNanos;
+            long wait = next - now - rate.burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+
+    /**
+     * Permits per second with up to burst permits taken at once.
+     */
+    public static class Rate {
+        private final long intervalNanos;
+
+        private final long burstNanos;
+
+        public Rate(double permitsPerSecond, int burst) {
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+            this.burstNanos = intervalNanos * burst;
+        }
+    }
+}
@@ -12,6 +12,10 @@ import org.springframework.web.reactive.config.WebFluxConfigurer;
 @Configuration
 @EnableWebFlux
 public class WebConfiguration implements WebFluxConfigurer {
+    /**
+     * Bodies of this type are decoded as lines of text, the in memory limit applies to each line instead of the whole body.
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
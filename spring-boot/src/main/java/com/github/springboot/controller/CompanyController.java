@@ -1,17 +1,30 @@
 package com.github.springboot.controller;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import javax.validation.Valid;
 
-import com.github.springboot.config.SpringSecurityAuditorAware;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.springboot.config.CompanyStreamProperties;
+import com.github.springboot.config.WebConfiguration;
+import com.github.springboot.dto.BulkResultDto;
+import com.github.springboot.dto.BulkSummaryDto;
+import com.github.springboot.dto.CompanyCursor;
 import com.github.springboot.dto.CompanyDto;
+import com.github.springboot.dto.CompanyEventDto;
+import com.github.springboot.dto.CompanyExport;
+import com.github.springboot.service.AdminCompaniesSnapshot;
+import com.github.springboot.service.CompanyChangeFeed;
 import com.github.springboot.service.CompanyService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import springfox.documentation.annotations.ApiIgnore;
@@ -19,6 +32,7 @@ import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -45,19 +59,72 @@ import org.springframework.web.server.ResponseStatusException;
 public class CompanyController {
     private final CompanyService companyService;
 
-    private final SpringSecurityAuditorAware springSecurityAuditorAware;
+    private final ObjectMapper objectMapper;
+
+    private final CompanyChangeFeed companyChangeFeed;
+
+    private final CompanyStreamProperties companyStreamProperties;
+
+    private final AdminCompaniesSnapshot adminCompaniesSnapshot;
 
     @ApiOperation(value = "Api for return list of companies")
     @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_READ', 'COMPANY_SAVE', 'COMPANY_DELETE', 'COMPANY_CREATE')")
-    public Flux<CompanyDto> findAll(@ApiIgnore @AuthenticationPrincipal Authentication authentication,
-        @RequestParam(name = "pageSize", defaultValue = "10") Integer pageSize) {
+    public Flux<ServerSentEvent<?>> findAll(@ApiIgnore @AuthenticationPrincipal Authentication authentication,
+        @RequestParam(name = "pageSize", defaultValue = "10") Integer pageSize,
+        @RequestParam(name = "cursor", required = false) String cursor) {
         log.debug("Hello({}) is authenticated? ({})", authentication.getName(), authentication.isAuthenticated());
-        if (hasRoleAdmin(authentication)) {
-            return companyService.findAllActiveCompanies(pageSize);
-        } else {
-            return companyService.findActiveCompaniesByUser(authentication.getName(), pageSize);
+        String user = (hasRoleAdmin(authentication) ? null : authentication.getName());
+        String after = decodeCursor(cursor, user);
+        if (user == null && adminCompaniesSnapshot.isCached(after, pageSize)) {
+            return Flux.from(adminCompaniesSnapshot.firstPage(pageSize));
         }
+        Flux<CompanyDto> companies = (user == null ? companyService.findAllActiveCompanies(after, pageSize) :
+            companyService.findActiveCompaniesByUser(user, after, pageSize));
+        return companies.map(c -> ServerSentEvent.<Object>builder(c)
+            .id(CompanyCursor.encode(user, c.getId()))
+            .build());
+    }
+
+    @ApiOperation(value = "Api for streaming changes of companies as they happen, with a heartbeat comment while idle")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_READ', 'COMPANY_SAVE', 'COMPANY_DELETE', 'COMPANY_CREATE')")
+    public Flux<ServerSentEvent<CompanyEventDto>> stream(@ApiIgnore @AuthenticationPrincipal Authentication authentication) {
+        String user = (hasRoleAdmin(authentication) ? null : authentication.getName());
+        Flux<ServerSentEvent<CompanyEventDto>> heartbeats = Flux.interval(companyStreamProperties.getHeartbeat())
+            .onBackpressureDrop()
+            .map(i -> ServerSentEvent.<CompanyEventDto>builder().comment("heartbeat").build());
+        return companyChangeFeed.changes(user)
+            .map(e -> ServerSentEvent.builder(e).event(e.getType()).build())
+            .publish(events -> Flux.merge(events, heartbeats.takeUntilOther(events.then())));
+    }
+
+    @ApiOperation(value = "Api for exporting every company as newline delimited json or csv with only the requested fields")
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Flux<String>>> export(@RequestParam(name = "fields", required = false) String fields,
+                                                     @RequestParam(name = "format", defaultValue = "ndjson") String format,
+                                                     @RequestParam(name = "batchSize", defaultValue = "1000") Integer batchSize) {
+        return Mono.fromSupplier(() -> {
+            List<String> exportFields;
+            CompanyExport.Format exportFormat;
+            try {
+                exportFields = CompanyExport.parseFields(fields);
+                exportFormat = CompanyExport.Format.from(format);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (batchSize < 1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid batchSize: " + batchSize);
+            }
+            Flux<Map<String, Object>> rows = companyService.export(exportFields, batchSize);
+            Flux<String> lines = (exportFormat == CompanyExport.Format.CSV ?
+                rows.map(r -> CompanyExport.toCsvLine(r.values())).startWith(CompanyExport.toCsvLine(exportFields)) :
+                rows.map(this::toJsonLine));
+            return ResponseEntity.ok()
+                .contentType(MediaType.valueOf(exportFormat.getMediaType()))
+                .body(lines);
+        });
     }
 
     @ApiOperation(value = "Api for return a company by id")
@@ -80,25 +147,36 @@ public class CompanyController {
     @ApiOperation(value = "Api for creating a company")
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_CREATE')")
-    public Mono<ResponseEntity<CompanyDto>> create(@RequestBody @ApiParam(required = true) @Valid CompanyDto companyDto,
-                                                  @ApiIgnore @AuthenticationPrincipal Authentication authentication) {
-        springSecurityAuditorAware.setCurrentAuthenticatedUser(authentication);
+    public Mono<ResponseEntity<CompanyDto>> create(@RequestBody @ApiParam(required = true) @Valid CompanyDto companyDto) {
         return companyService.save(companyDto)
                 .map(p -> ResponseEntity.created(URI.create(String.format("/api/companies/%s", p.getId())))
                         .body(p));
     }
 
+    @ApiOperation(value = "Api for creating companies in bulk, returns the result of each company in request order")
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_CREATE')")
+    public Flux<BulkResultDto> createBulk(@RequestBody @ApiParam(required = true) Flux<CompanyDto> companies,
+                                          @ApiIgnore @AuthenticationPrincipal Authentication authentication) {
+        return companyService.saveAll(companies, authentication.getName());
+    }
+
+    @ApiOperation(value = "Api for importing companies from newline delimited json, returns totals once every line is written")
+    @PostMapping(value = "/bulk", consumes = WebConfiguration.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_CREATE')")
+    public Mono<BulkSummaryDto> importCompanies(@RequestBody @ApiParam(required = true) Flux<String> lines,
+                                                @ApiIgnore @AuthenticationPrincipal Authentication authentication) {
+        return companyService.importAll(lines, authentication.getName())
+            .collect(BulkSummaryDto::new, BulkSummaryDto::add);
+    }
+
     @ApiOperation(value = "Api for updating a company")
     @PutMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_SAVE')")
     public Mono<CompanyDto> update(@RequestBody @ApiParam(required = true) @Valid CompanyDto companyDto,
                                   @PathVariable @ApiParam(required = true) String id,
                                   @ApiIgnore @AuthenticationPrincipal Authentication authentication) {
-        springSecurityAuditorAware.setCurrentAuthenticatedUser(authentication);
-        companyDto.setId(id);
-        return companyService.findById(id)
-                .switchIfEmpty(responseNotFound())
-                .flatMap(p -> companyService.save(companyDto));
+        return companyService.update(id, companyDto, authentication.getName(), hasRoleAdmin(authentication));
     }
 
     @ApiOperation(value = "Api for deleting a company")
@@ -106,21 +184,29 @@ public class CompanyController {
     @PreAuthorize("hasAnyRole('ADMIN', 'COMPANY_DELETE')")
     public Mono<Void> delete(@PathVariable @ApiParam(required = true) String id,
                              @ApiIgnore @AuthenticationPrincipal Authentication authentication) {
-        return companyService.findById(id)
-            .switchIfEmpty(responseNotFound())
-            .flatMap(u -> {
-                if (hasRoleAdmin(authentication) || u.getCreatedByUser().equals(authentication.getName())) {
-                    return companyService.deleteById(id);
-                } else {
-                    return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, String.format("User(%s) does not have access to delete this resource", authentication.getName())));
-                }
-            });
+        return companyService.delete(id, authentication.getName(), hasRoleAdmin(authentication));
     }
 
-    private boolean hasRoleAdmin(Authentication authentication) {
+    boolean hasRoleAdmin(Authentication authentication) {
         return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch(a -> a.equals("ROLE_ADMIN"));
     }
 
+    private String decodeCursor(String cursor, String user) {
+        try {
+            return CompanyCursor.decode(cursor, user);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private String toJsonLine(Map<String, Object> row) {
+        try {
+            return objectMapper.writeValueAsString(row) + "\n";
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
     private Mono<CompanyDto> responseNotFound() {
         return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
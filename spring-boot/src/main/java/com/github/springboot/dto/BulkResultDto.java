@@ -0,0 +1,20 @@
+package com.github.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single item of a bulk request, status follows the http status a single request would get.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResultDto {
+    private long index;
+    private String id;
+    private int status;
+    private String message;
+}
@@ -0,0 +1,33 @@
+package com.github.springboot.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Totals of a streamed import, only the first failures are kept so memory does not grow with the upload.
+ */
+@Data
+public class BulkSummaryDto {
+    public static final int MAX_REPORTED_FAILURES = 100;
+
+    private long total;
+    private long created;
+    private long failed;
+    private List<BulkResultDto> failures = new ArrayList<>();
+
+    public void add(BulkResultDto result) {
+        total++;
+        if (result.getStatus() == HttpStatus.CREATED.value()) {
+            created++;
+        } else {
+            failed++;
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(result);
+            }
+        }
+    }
+}
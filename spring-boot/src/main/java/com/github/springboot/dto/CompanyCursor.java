@@ -0,0 +1,53 @@
+package com.github.springboot.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
+
+/**
+ * Opaque keyset cursor used to page through active companies.
+ * Holds the last returned company id and, for the per user listing, the owner the page was filtered by.
+ */
+public final class CompanyCursor {
+    private static final String SEPARATOR = ":";
+
+    private CompanyCursor() {
+    }
+
+    /**
+     * Encode a cursor pointing after the given company.
+     * @param user owner used to filter the listing or null for all companies
+     * @param id last returned company id
+     * @return opaque cursor
+     */
+    public static String encode(String user, String id) {
+        String value = StringUtils.defaultString(user) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor issued by {@link #encode(String, String)}.
+     * @param cursor opaque cursor, blank for the first page
+     * @param user owner used to filter the listing or null for all companies
+     * @return last returned company id or null for the first page
+     * @throws IllegalArgumentException when the cursor is malformed or was issued for another listing
+     */
+    public static String decode(String cursor, String user) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int index = value.lastIndexOf(SEPARATOR);
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        String id = value.substring(index + 1);
+        if (!ObjectId.isValid(id) || !Objects.equals(value.substring(0, index), StringUtils.defaultString(user))) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return id;
+    }
+}
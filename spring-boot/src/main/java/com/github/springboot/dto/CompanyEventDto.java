@@ -0,0 +1,28 @@
+package com.github.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change of a company pushed by the companies stream, company is only set on insert and update.
+ * A resync event means changes were dropped and the client has to read the companies again.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyEventDto {
+    public static final String INSERT = "insert";
+
+    public static final String UPDATE = "update";
+
+    public static final String DELETE = "delete";
+
+    public static final String RESYNC = "resync";
+
+    private String type;
+    private String id;
+    private CompanyDto company;
+}
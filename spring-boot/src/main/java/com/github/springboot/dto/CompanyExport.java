@@ -0,0 +1,129 @@
+package com.github.springboot.dto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.github.springboot.config.WebConfiguration;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Fields and formats available to the companies export, rows are built straight from mongo documents
+ * so only the requested fields are read and no entity or dto is created per company.
+ */
+public final class CompanyExport {
+    private static final Map<String, String> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("id", "_id");
+        FIELDS.put("name", "name");
+        FIELDS.put("createdByUser", "createdByUser");
+        FIELDS.put("activated", "activated");
+        FIELDS.put("createdDate", "createdDate");
+        FIELDS.put("lastModifiedByUser", "lastModifiedByUser");
+        FIELDS.put("lastModifiedDate", "lastModifiedDate");
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public enum Format {
+        NDJSON(WebConfiguration.APPLICATION_NDJSON_VALUE),
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        /**
+         * @param format format name ignoring case
+         * @return format
+         * @throws IllegalArgumentException when the format is not supported
+         */
+        public static Format from(String format) {
+            return Arrays.stream(values())
+                .filter(f -> f.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid format: " + format));
+        }
+    }
+
+    private CompanyExport() {
+    }
+
+    /**
+     * Parse a comma separated list of fields.
+     * @param fields requested fields, blank for all fields
+     * @return fields in requested order
+     * @throws IllegalArgumentException when a field cannot be exported
+     */
+    public static List<String> parseFields(String fields) {
+        if (StringUtils.isBlank(fields)) {
+            return FIELDS.keySet().stream().collect(Collectors.toList());
+        }
+        List<String> parsed = Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(StringUtils::isNotBlank)
+            .distinct()
+            .collect(Collectors.toList());
+        parsed.stream()
+            .filter(f -> !FIELDS.containsKey(f))
+            .findFirst()
+            .ifPresent(f -> {
+                throw new IllegalArgumentException("Invalid field: " + f);
+            });
+        return parsed;
+    }
+
+    /**
+     * @param fields fields returned by {@link #parseFields(String)}
+     * @return mongo fields backing them
+     */
+    public static List<String> mongoFields(List<String> fields) {
+        return fields.stream().map(FIELDS::get).collect(Collectors.toList());
+    }
+
+    /**
+     * @param document projected document
+     * @param fields fields returned by {@link #parseFields(String)}
+     * @return values by field in requested order, ids as hex strings and dates as iso instants
+     */
+    public static Map<String, Object> toRow(Document document, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        fields.forEach(f -> row.put(f, toValue(document.get(FIELDS.get(f)))));
+        return row;
+    }
+
+    /**
+     * @param values values of a row
+     * @return csv line terminated by a new line, values quoted when needed
+     */
+    public static String toCsvLine(Collection<?> values) {
+        return values.stream()
+            .map(v -> (v == null ? "" : v.toString()))
+            .map(CompanyExport::escapeCsv)
+            .collect(Collectors.joining(",", "", "\n"));
+    }
+
+    private static Object toValue(Object value) {
+        if (value instanceof ObjectId) {
+            return ((ObjectId) value).toHexString();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toInstant().toString();
+        }
+        return value;
+    }
+
+    private static String escapeCsv(String value) {
+        if (StringUtils.containsAny(value, ',', '"', '\n', '\r')) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
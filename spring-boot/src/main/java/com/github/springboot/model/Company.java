@@ -15,6 +15,8 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Builder
@@ -22,6 +24,10 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "springboot_companies")
+@CompoundIndexes({
+    @CompoundIndex(name = "active_companies_idx", def = "{'activated': 1, '_id': 1}"),
+    @CompoundIndex(name = "active_companies_by_user_idx", def = "{'createdByUser': 1, 'activated': 1, '_id': 1}")
+})
 public class Company implements Serializable {
     @Id
     private String id;
@@ -1,22 +1,27 @@
 package com.github.springboot.repository;
 
 import com.github.springboot.model.Company;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository for Company Object using MongoDB.
  * Name convention are binding using Spring Data MongoDB - https://docs.spring.io/spring-data/mongodb/docs/current/reference/html/#repositories.query-methods.query-creation
+ * Reads and updates done on behalf of a request are in {@link CompanyRepositoryCustom} so they are sent with the request deadline as maxTimeMS.
  */
 @Repository
-public interface CompanyRepository extends ReactiveMongoRepository<Company, String> {
-    @Query("{'activated': true}")
-    Flux<Company> findActiveCompanies(final Pageable page);
+public interface CompanyRepository extends ReactiveMongoRepository<Company, String>, CompanyRepositoryCustom {
+    /**
+     * Implemented by {@link CompanyRepositoryCustomImpl#findById(String)}, declared again only to pick it over the crud one.
+     */
+    @Override
+    Mono<Company> findById(String id);
 
-    @Query("{'activated': true, 'createdByUser': ?0}")
-    Flux<Company> findActiveCompaniesByUser(String user, final Pageable page);
+    /**
+     * Implemented by {@link CompanyRepositoryCustomImpl#existsById(String)}, declared again only to pick it over the crud one.
+     */
+    @Override
+    Mono<Boolean> existsById(String id);
 }
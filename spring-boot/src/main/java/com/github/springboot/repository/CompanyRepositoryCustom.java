@@ -0,0 +1,80 @@
+package com.github.springboot.repository;
+
+import java.util.List;
+
+import com.github.springboot.config.RequestDeadline;
+import com.github.springboot.model.Company;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Operations on companies not covered by derived queries.
+ * Reads and updates run with the {@link RequestDeadline} of the reactor context, when there is one, as maxTimeMS so mongo stops working on them once the request expired.
+ */
+public interface CompanyRepositoryCustom {
+    /**
+     * Same as {@link org.springframework.data.repository.reactive.ReactiveCrudRepository#findById(Object)} within the request deadline.
+     * @param id company id
+     * @return company or empty when not found
+     */
+    Mono<Company> findById(String id);
+
+    /**
+     * Same as {@link org.springframework.data.repository.reactive.ReactiveCrudRepository#existsById(Object)} within the request deadline.
+     * @param id company id
+     * @return whether the company exists
+     */
+    Mono<Boolean> existsById(String id);
+
+    /**
+     * Active companies are ordered by id so next pages can seek from the last returned id instead of skipping.
+     * @param page size of the page, always the first page
+     * @return active companies
+     */
+    Flux<Company> findActiveCompanies(Pageable page);
+
+    Flux<Company> findActiveCompaniesAfter(ObjectId after, Pageable page);
+
+    Flux<Company> findActiveCompaniesByUser(String user, Pageable page);
+
+    Flux<Company> findActiveCompaniesByUserAfter(String user, ObjectId after, Pageable page);
+
+    /**
+     * Insert companies with a single unordered insertMany so one failing company does not stop the others.
+     * Mapping events are not published so companies must be validated and audited by the caller.
+     * @param companies companies with ids already assigned
+     * @return write errors indexed by position in companies, empty when all were inserted
+     */
+    Mono<List<BulkWriteError>> insertAllUnordered(List<Company> companies);
+
+    /**
+     * Stream every company reading only the given fields, documents are fetched from the cursor in batches.
+     * @param fields mongo fields to read, _id is only read when listed
+     * @param batchSize documents per cursor batch
+     * @return raw documents
+     */
+    Flux<Document> findAllProjected(List<String> fields, int batchSize);
+
+    /**
+     * Apply the update with a single findAndModify matching the id and, unless null, the owner, within the request deadline.
+     * @param id company id
+     * @param owner user that must have created the company or null to match any owner
+     * @param update changes to apply
+     * @return company after the update or empty when nothing matched
+     */
+    Mono<Company> findAndModifyByIdAndOwner(String id, String owner, Update update);
+
+    /**
+     * Delete with a single deleteOne matching the id and, unless null, the owner.
+     * @param id company id
+     * @param owner user that must have created the company or null to match any owner
+     * @return whether a company was deleted
+     */
+    Mono<Boolean> deleteByIdAndOwner(String id, String owner);
+}
@@ -0,0 +1,148 @@
+package com.github.springboot.repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.github.springboot.config.RequestDeadline;
+import com.github.springboot.model.Company;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@AllArgsConstructor
+public class CompanyRepositoryCustomImpl implements CompanyRepositoryCustom {
+    private static final Sort SORT_BY_ID = Sort.by("id");
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Company> findById(String id) {
+        return Mono.subscriberContext()
+            .flatMap(context -> mongoOperations.findOne(withDeadline(Query.query(Criteria.where("id").is(id)), context), Company.class));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        // exists does not send maxTimeMS, read only the id instead
+        Query query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("id");
+        return Mono.subscriberContext()
+            .flatMap(context -> mongoOperations.findOne(withDeadline(query, context), Company.class))
+            .hasElement();
+    }
+
+    @Override
+    public Flux<Company> findActiveCompanies(Pageable page) {
+        return findActiveCompanies(Criteria.where("activated").is(true), page);
+    }
+
+    @Override
+    public Flux<Company> findActiveCompaniesAfter(ObjectId after, Pageable page) {
+        return findActiveCompanies(Criteria.where("activated").is(true).and("id").gt(after), page);
+    }
+
+    @Override
+    public Flux<Company> findActiveCompaniesByUser(String user, Pageable page) {
+        return findActiveCompanies(Criteria.where("activated").is(true).and("createdByUser").is(user), page);
+    }
+
+    @Override
+    public Flux<Company> findActiveCompaniesByUserAfter(String user, ObjectId after, Pageable page) {
+        return findActiveCompanies(Criteria.where("activated").is(true).and("createdByUser").is(user).and("id").gt(after), page);
+    }
+
+    @Override
+    public Mono<List<BulkWriteError>> insertAllUnordered(List<Company> companies) {
+        List<Document> documents = companies.stream()
+            .map(this::toDocument)
+            .collect(Collectors.toList());
+        return Mono.from(mongoOperations.getCollection(mongoOperations.getCollectionName(Company.class))
+                .insertMany(documents, new InsertManyOptions().ordered(false)))
+            .map(s -> Collections.<BulkWriteError>emptyList())
+            .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(e.getWriteErrors()));
+    }
+
+    @Override
+    public Flux<Document> findAllProjected(List<String> fields, int batchSize) {
+        Document projection = new Document("_id", 0);
+        fields.forEach(f -> projection.append(f, 1));
+        return Flux.from(mongoOperations.getCollection(mongoOperations.getCollectionName(Company.class))
+            .find()
+            .projection(projection)
+            .batchSize(batchSize));
+    }
+
+    @Override
+    public Mono<Company> findAndModifyByIdAndOwner(String id, String owner, Update update) {
+        // findAndModify of the template does not send maxTimeMS, run findOneAndUpdate on the collection instead
+        MongoConverter converter = mongoOperations.getConverter();
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(Company.class);
+        Document filter = new QueryMapper(converter).getMappedObject(byIdAndOwner(id, owner).getQueryObject(), entity);
+        Document changes = new UpdateMapper(converter).getMappedObject(update.getUpdateObject(), entity);
+        return Mono.subscriberContext()
+            .flatMap(context -> Mono.from(mongoOperations.getCollection(mongoOperations.getCollectionName(Company.class))
+                .findOneAndUpdate(filter, changes, withDeadline(new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER), context))))
+            .map(document -> converter.read(Company.class, document));
+    }
+
+    @Override
+    public Mono<Boolean> deleteByIdAndOwner(String id, String owner) {
+        return mongoOperations.remove(byIdAndOwner(id, owner), Company.class)
+            .map(r -> r.getDeletedCount() > 0);
+    }
+
+    private Flux<Company> findActiveCompanies(Criteria criteria, Pageable page) {
+        return Mono.subscriberContext()
+            .flatMapMany(context -> mongoOperations.find(withDeadline(Query.query(criteria).with(page).with(SORT_BY_ID), context), Company.class));
+    }
+
+    /**
+     * An expired deadline is sent as 1ms, mongo treats 0 as no limit.
+     */
+    private Query withDeadline(Query query, Context context) {
+        RequestDeadline.from(context)
+            .ifPresent(d -> query.maxTimeMsec(Math.max(1, d.remaining().toMillis())));
+        return query;
+    }
+
+    private FindOneAndUpdateOptions withDeadline(FindOneAndUpdateOptions options, Context context) {
+        RequestDeadline.from(context)
+            .ifPresent(d -> options.maxTime(Math.max(1, d.remaining().toMillis()), TimeUnit.MILLISECONDS));
+        return options;
+    }
+
+    private Query byIdAndOwner(String id, String owner) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (owner != null) {
+            criteria.and("createdByUser").is(owner);
+        }
+        return Query.query(criteria);
+    }
+
+    private Document toDocument(Company company) {
+        Document document = new Document();
+        mongoOperations.getConverter().write(company, document);
+        return document;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.springboot.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.springboot.config.AdminCompaniesCacheProperties;
+import com.github.springboot.dto.CompanyCursor;
+import com.github.springboot.dto.CompanyDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * The first page of active companies is the same for every admin, so it is kept as one snapshot per page size of
+ * ready to write frames, with the company already serialized as json.
+ * <p>
+ * Stale while revalidate: a snapshot older than refresh-after-write is still served as is while a single refresh runs in background,
+ * so admins never wait for mongo once a page size was read and mongo sees at most one query per page size and interval.
+ * A failed refresh keeps serving the previous snapshot, hits and misses are exported as cache.* metrics tagged cache=admin.companies.
+ */
+@Component
+public class AdminCompaniesSnapshot {
+    private final CompanyService companyService;
+
+    private final ObjectMapper objectMapper;
+
+    private final AdminCompaniesCacheProperties properties;
+
+    private final AsyncLoadingCache<Integer, List<ServerSentEvent<String>>> snapshots;
+
+    public AdminCompaniesSnapshot(CompanyService companyService, ObjectMapper objectMapper, AdminCompaniesCacheProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.companyService = companyService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.snapshots = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .refreshAfterWrite(properties.getRefreshAfterWrite())
+            .expireAfterWrite(properties.getExpireAfterWrite())
+            .recordStats()
+            .buildAsync((pageSize, executor) -> load(pageSize).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots.synchronous(), "admin.companies");
+    }
+
+    /**
+     * @return whether the page is served from a snapshot, otherwise read it with {@link CompanyService#findAllActiveCompanies}
+     */
+    public boolean isCached(String after, Integer pageSize) {
+        return properties.isEnabled() && after == null && pageSize <= properties.getMaximumPageSize();
+    }
+
+    /**
+     * Frames of the first page of active companies, with the cursor of each company as id.
+     */
+    public Flux<ServerSentEvent<String>> firstPage(Integer pageSize) {
+        // a dependent future, cancelling a request must not cancel the load shared with the others
+        return Mono.defer(() -> Mono.fromFuture(snapshots.get(pageSize).thenApply(Function.identity())))
+            .flatMapIterable(frames -> frames);
+    }
+
+    private Mono<List<ServerSentEvent<String>>> load(Integer pageSize) {
+        return companyService.findAllActiveCompanies(null, pageSize)
+            .map(this::toFrame)
+            .collectList();
+    }
+
+    private ServerSentEvent<String> toFrame(CompanyDto company) {
+        try {
+            return ServerSentEvent.builder(objectMapper.writeValueAsString(company))
+                .id(CompanyCursor.encode(null, company.getId()))
+                .build();
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.springboot.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.springboot.dto.CompanyDto;
+import reactor.core.publisher.Mono;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Companies cached by id in front of mongo, invalidated on writes of this replica and on changes of any replica.
+ * <p>
+ * Every invalidation bumps the version of the id, a company read through is only kept when the version did not change
+ * while it was read, so a read racing an update or delete cannot cache the company as it was before the change.
+ * Versions are kept per hash stripe of the id so they do not grow with the ids, a collision only skips caching a read.
+ */
+@Component
+public class CompanyCache {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Cache<String, CompanyDto> cache;
+
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final AtomicLong clears = new AtomicLong();
+
+    public CompanyCache(Cache<String, CompanyDto> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Return the cached company or the one of the loader, which is expected to cache it with {@link #readThrough}.
+     * @param id company id
+     * @param loader read on a cache miss, e.g. shared with a {@link SingleFlight}
+     * @return company or empty when not found
+     */
+    public Mono<CompanyDto> get(String id, Supplier<Mono<CompanyDto>> loader) {
+        return Mono.defer(() -> {
+            CompanyDto cached = cache.getIfPresent(id);
+            return (cached != null ? Mono.just(cached) : loader.get());
+        });
+    }
+
+    /**
+     * Cache the company read unless the id is invalidated from the subscription to the read until its result.
+     * @param id company id
+     * @param read company from mongo, empty when not found
+     * @return the read
+     */
+    public Mono<CompanyDto> readThrough(String id, Mono<CompanyDto> read) {
+        return Mono.defer(() -> {
+            long version = version(id);
+            return read.doOnNext(c -> putIfUnchanged(id, version, c));
+        });
+    }
+
+    public void invalidate(String id) {
+        versions.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        clears.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void putIfUnchanged(String id, long version, CompanyDto company) {
+        cache.put(id, company);
+        // checked after the put, an invalidation between a check and the put would be lost
+        if (version(id) != version) {
+            cache.invalidate(id);
+        }
+    }
+
+    private long version(String id) {
+        return clears.get() + versions.get(stripe(id));
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+}
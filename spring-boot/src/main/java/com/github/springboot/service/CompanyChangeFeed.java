@@ -0,0 +1,128 @@
+package com.github.springboot.service;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.springboot.config.CompanyStreamProperties;
+import com.github.springboot.dto.CompanyEventDto;
+import com.github.springboot.model.Company;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+/**
+ * Live changes of companies from a single change stream shared by every connected client, opened with the first client
+ * and closed with the last one.
+ * <p>
+ * Delete events only carry the id, so the owner of each company seen on insert or update is remembered to route them.
+ * Deletes of companies not seen since the stream was opened only reach admins.
+ */
+@Slf4j
+@Service
+public class CompanyChangeFeed {
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    private final CompanyServiceImpl.CompanyMapper companyMapper;
+
+    private final CompanyStreamProperties companyStreamProperties;
+
+    private final Cache<String, String> owners;
+
+    private final Flux<Change> changes;
+
+    public CompanyChangeFeed(ReactiveMongoOperations mongoOperations, CompanyServiceImpl.CompanyMapper companyMapper,
+                             CompanyStreamProperties companyStreamProperties) {
+        this.companyMapper = companyMapper;
+        this.companyStreamProperties = companyStreamProperties;
+        this.owners = Caffeine.newBuilder()
+            .maximumSize(companyStreamProperties.getOwnersMaximumSize())
+            .build();
+        ChangeStreamOptions options = ChangeStreamOptions.builder()
+            .filter(Aggregation.newAggregation(Aggregation.match(Criteria.where("operationType").in("insert", "update", "replace", "delete"))))
+            .returnFullDocumentOnUpdate()
+            .build();
+        this.changes = mongoOperations.changeStream(mongoOperations.getCollectionName(Company.class), options, Company.class)
+            .filter(this::hasCompany)
+            .map(this::toChange)
+            .onErrorResume(this::isChangeStreamNotSupported, e -> {
+                log.warn("Change streams are not supported by this deployment, companies stream is empty: {}", e.getMessage());
+                return Flux.empty();
+            })
+            .doOnError(e -> log.warn("Companies change stream failed, retrying", e))
+            .retryBackoff(Long.MAX_VALUE, Duration.ofSeconds(1), Duration.ofMinutes(1))
+            .publish()
+            .refCount();
+    }
+
+    /**
+     * Changes visible to the user, buffered per client so a slow client does not hold back the others.
+     * When the buffer is full the client gets the buffered changes, a {@link CompanyEventDto#RESYNC} event and the stream completes.
+     * @param user only changes of companies created by this user, null for every change
+     * @return changes as they are committed
+     */
+    public Flux<CompanyEventDto> changes(String user) {
+        return changes.filter(c -> user == null || user.equals(c.owner))
+            .map(c -> c.event)
+            .onBackpressureBuffer(companyStreamProperties.getBufferSize(), BufferOverflowStrategy.ERROR)
+            .onErrorResume(Exceptions::isOverflow, e -> {
+                log.debug("Companies stream buffer of user({}) is full, asking to resync", user);
+                return Mono.just(CompanyEventDto.builder().type(CompanyEventDto.RESYNC).build());
+            });
+    }
+
+    /**
+     * Skip events without an id or updates of companies deleted before the lookup of the full document.
+     */
+    private boolean hasCompany(ChangeStreamEvent<Company> event) {
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        BsonDocument documentKey = (raw != null ? raw.getDocumentKey() : null);
+        return documentKey != null && documentKey.containsKey("_id") &&
+            (event.getOperationType() == OperationType.DELETE || event.getBody() != null);
+    }
+
+    private Change toChange(ChangeStreamEvent<Company> event) {
+        BsonValue value = event.getRaw().getDocumentKey().get("_id");
+        String id = (value.isObjectId() ? value.asObjectId().getValue().toHexString() : value.asString().getValue());
+        if (event.getOperationType() == OperationType.DELETE) {
+            String owner = owners.getIfPresent(id);
+            owners.invalidate(id);
+            return new Change(owner, CompanyEventDto.builder().type(CompanyEventDto.DELETE).id(id).build());
+        }
+        Company company = event.getBody();
+        owners.put(id, company.getCreatedByUser());
+        String type = (event.getOperationType() == OperationType.INSERT ? CompanyEventDto.INSERT : CompanyEventDto.UPDATE);
+        return new Change(company.getCreatedByUser(), CompanyEventDto.builder().type(type).id(id).company(companyMapper.map(company)).build());
+    }
+
+    private boolean isChangeStreamNotSupported(Throwable e) {
+        Throwable cause = (e.getCause() != null ? e.getCause() : e);
+        return (cause instanceof MongoCommandException && ((MongoCommandException) cause).getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED);
+    }
+
+    private static class Change {
+        private final String owner;
+
+        private final CompanyEventDto event;
+
+        Change(String owner, CompanyEventDto event) {
+            this.owner = owner;
+            this.event = event;
+        }
+    }
+}
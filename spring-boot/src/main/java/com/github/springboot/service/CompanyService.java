@@ -1,5 +1,9 @@
 package com.github.springboot.service;
 
+import java.util.List;
+import java.util.Map;
+
+import com.github.springboot.dto.BulkResultDto;
 import com.github.springboot.dto.CompanyDto;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -15,6 +19,23 @@ public interface CompanyService {
      */
     Mono<CompanyDto> save(CompanyDto companyDto);
 
+    /**
+     * Validate and insert companies in unordered chunks, a failing company does not stop the others.
+     * Companies are requested one chunk at a time so a streamed upload is read as fast as it is written.
+     * @param companies companies to create
+     * @param user user creating the companies
+     * @return result per company in the same order
+     */
+    Flux<BulkResultDto> saveAll(Flux<CompanyDto> companies, String user);
+
+    /**
+     * Parse newline delimited json and create the companies like {@link #saveAll}, a line that is not a company fails on its own.
+     * @param lines one json company per line, blank lines are skipped
+     * @param user user creating the companies
+     * @return result per non blank line in the same order
+     */
+    Flux<BulkResultDto> importAll(Flux<String> lines, String user);
+
     /**
      * Return a Company by id.
      * @param id id
@@ -24,18 +45,47 @@ public interface CompanyService {
 
     /**
      * Return list of active companies.
+     * @param after id of the last company from previous page or null for first page
      * @param pageSize page size
      * @return list of users
      */
-    Flux<CompanyDto> findAllActiveCompanies(Integer pageSize);
+    Flux<CompanyDto> findAllActiveCompanies(String after, Integer pageSize);
 
     /**
      * Return list of active companies by user
      * @param name user
+     * @param after id of the last company from previous page or null for first page
      * @param pageSize page size
      * @return list of companies
      */
-    Flux<CompanyDto> findActiveCompaniesByUser(String name, Integer pageSize);
+    Flux<CompanyDto> findActiveCompaniesByUser(String name, String after, Integer pageSize);
+
+    /**
+     * Stream every company reading only the exported fields.
+     * @param fields fields returned by {@link com.github.springboot.dto.CompanyExport#parseFields(String)}
+     * @param batchSize documents per cursor batch
+     * @return values by field in requested order
+     */
+    Flux<Map<String, Object>> export(List<String> fields, int batchSize);
+
+    /**
+     * Update name and activated of a company in a single write, only matching companies created by the user unless admin.
+     * @param id id
+     * @param companyDto new values
+     * @param user user changing the company
+     * @param admin whether the user can change companies created by other users
+     * @return updated company, fails with NOT_FOUND or FORBIDDEN {@link org.springframework.web.server.ResponseStatusException}
+     */
+    Mono<CompanyDto> update(String id, CompanyDto companyDto, String user, boolean admin);
+
+    /**
+     * Delete a company in a single write, only matching companies created by the user unless admin.
+     * @param id id
+     * @param user user deleting the company
+     * @param admin whether the user can delete companies created by other users
+     * @return completes once deleted, fails with NOT_FOUND or FORBIDDEN {@link org.springframework.web.server.ResponseStatusException}
+     */
+    Mono<Void> delete(String id, String user, boolean admin);
 
     /**
      * Delete a user by id.
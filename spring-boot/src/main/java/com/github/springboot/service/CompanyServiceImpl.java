@@ -1,46 +1,246 @@
 package com.github.springboot.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.springboot.config.CompanyBulkProperties;
+import com.github.springboot.dto.BulkResultDto;
 import com.github.springboot.dto.CompanyDto;
+import com.github.springboot.dto.CompanyExport;
 import com.github.springboot.model.Company;
 import com.github.springboot.repository.CompanyRepository;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
+import org.bson.types.ObjectId;
 import org.mapstruct.Mapper;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 @AllArgsConstructor
 public class CompanyServiceImpl implements CompanyService {
+    private static final String BULK_ITEMS_METRIC = "companies.bulk.items";
+
+    private static final String BULK_CHUNK_METRIC = "companies.bulk.chunk";
+
     private final CompanyRepository companyRepository;
 
     private final CompanyMapper companyMapper;
 
+    private final CompanyCache companyCache;
+
+    private final Validator validator;
+
+    private final CompanyBulkProperties companyBulkProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SingleFlight singleFlight;
+
+    private final ObjectMapper objectMapper;
+
     public Mono<CompanyDto> save(CompanyDto companyDto) {
         Company company = companyMapper.dtoToEntity(companyDto);
-        return companyMapper.entityToDto(companyRepository.save(company));
+        return companyMapper.entityToDto(companyRepository.save(company))
+            .doOnNext(c -> Optional.ofNullable(c.getId()).ifPresent(companyCache::invalidate));
     }
 
+    @Override
+    public Flux<BulkResultDto> saveAll(Flux<CompanyDto> companies, String user) {
+        Instant now = Instant.now();
+        return insertAll(companies.index()
+            .map(c -> toBulkItem(c.getT1(), c.getT2(), user, now)));
+    }
+
+    @Override
+    public Flux<BulkResultDto> importAll(Flux<String> lines, String user) {
+        Instant now = Instant.now();
+        return insertAll(lines.filter(StringUtils::hasText)
+            .index()
+            .map(l -> parseBulkItem(l.getT1(), l.getT2(), user, now)));
+    }
+
+    private Flux<BulkResultDto> insertAll(Flux<BulkItem> items) {
+        return items.buffer(companyBulkProperties.getChunkSize())
+            .concatMap(this::insertChunk)
+            .doOnNext(r -> meterRegistry.counter(BULK_ITEMS_METRIC, "status", String.valueOf(r.getStatus())).increment());
+    }
+
+    /**
+     * Return a company from cache or read it through from mongo, concurrent misses of the same id share one read.
+     * Cached instances are shared between callers so they must not be changed.
+     * @param id id
+     * @return companyDto
+     */
     @Override
     public Mono<CompanyDto> findById(String id) {
-        return companyMapper.entityToDto(companyRepository.findById(id));
+        return companyCache.get(id, () -> singleFlight.mono("findById", id,
+            () -> companyCache.readThrough(id, companyMapper.entityToDto(companyRepository.findById(id)))));
+    }
+
+    /**
+     * Concurrent reads of the same page share one query.
+     */
+    @Override
+    public Flux<CompanyDto> findAllActiveCompanies(String after, Integer pageSize) {
+        return singleFlight.flux("findActiveCompanies", Arrays.asList(null, after, pageSize), () -> {
+            Pageable page = PageRequest.of(0, pageSize);
+            if (after == null) {
+                return companyMapper.entityToDto(companyRepository.findActiveCompanies(page));
+            }
+            return companyMapper.entityToDto(companyRepository.findActiveCompaniesAfter(new ObjectId(after), page));
+        });
     }
 
+    /**
+     * Concurrent reads of the same page by the same user share one query.
+     */
     @Override
-    public Flux<CompanyDto> findAllActiveCompanies(Integer pageSize) {
-        return companyMapper.entityToDto(companyRepository.findActiveCompanies(PageRequest.of(0, pageSize)));
+    public Flux<CompanyDto> findActiveCompaniesByUser(String name, String after, Integer pageSize) {
+        return singleFlight.flux("findActiveCompanies", Arrays.asList(name, after, pageSize), () -> {
+            Pageable page = PageRequest.of(0, pageSize);
+            if (after == null) {
+                return companyMapper.entityToDto(companyRepository.findActiveCompaniesByUser(name, page));
+            }
+            return companyMapper.entityToDto(companyRepository.findActiveCompaniesByUserAfter(name, new ObjectId(after), page));
+        });
     }
 
     @Override
-    public Flux<CompanyDto> findActiveCompaniesByUser(String name, Integer pageSize) {
-        return companyMapper.entityToDto(companyRepository.findActiveCompaniesByUser(name, PageRequest.of(0, pageSize)));
+    public Flux<Map<String, Object>> export(List<String> fields, int batchSize) {
+        return companyRepository.findAllProjected(CompanyExport.mongoFields(fields), batchSize)
+            .map(d -> CompanyExport.toRow(d, fields));
     }
 
     @Override
     public Mono<Void> deleteById(String id) {
-        return companyRepository.deleteById(id);
+        return companyRepository.deleteById(id)
+            .doOnSuccess(v -> companyCache.invalidate(id));
+    }
+
+    @Override
+    public Mono<CompanyDto> update(String id, CompanyDto companyDto, String user, boolean admin) {
+        Update update = Update.update("name", companyDto.getName())
+            .set("lastModifiedByUser", user)
+            .set("lastModifiedDate", Instant.now());
+        Optional.ofNullable(companyDto.getActivated()).ifPresent(a -> update.set("activated", a));
+        return companyMapper.entityToDto(companyRepository.findAndModifyByIdAndOwner(id, (admin ? null : user), update))
+            .switchIfEmpty(notMatched(id, user, "change"))
+            .doOnNext(c -> companyCache.invalidate(id));
+    }
+
+    @Override
+    public Mono<Void> delete(String id, String user, boolean admin) {
+        return companyRepository.deleteByIdAndOwner(id, (admin ? null : user))
+            .filter(Boolean::booleanValue)
+            .switchIfEmpty(notMatched(id, user, "delete"))
+            .doOnNext(d -> companyCache.invalidate(id))
+            .then();
+    }
+
+    /**
+     * Only read the company when a write filtered by owner did not match, to tell a missing company from one created by another user.
+     */
+    private <T> Mono<T> notMatched(String id, String user, String action) {
+        return Mono.defer(() -> companyRepository.existsById(id))
+            .flatMap(exists -> Mono.<T>error(exists ? new ResponseStatusException(HttpStatus.FORBIDDEN, String.format("User(%s) does not have access to %s this resource", user, action)) :
+                new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    private BulkItem parseBulkItem(long index, String line, String user, Instant now) {
+        try {
+            return toBulkItem(index, objectMapper.readValue(line, CompanyDto.class), user, now);
+        } catch (JsonProcessingException e) {
+            return new BulkItem(index, null, BulkResultDto.builder().index(index).status(HttpStatus.BAD_REQUEST.value()).message(e.getOriginalMessage()).build());
+        }
+    }
+
+    private BulkItem toBulkItem(long index, CompanyDto companyDto, String user, Instant now) {
+        Set<ConstraintViolation<CompanyDto>> violations = validator.validate(companyDto);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                .map(v -> String.format("%s %s", v.getPropertyPath(), v.getMessage()))
+                .sorted()
+                .collect(Collectors.joining(", "));
+            return new BulkItem(index, null, BulkResultDto.builder().index(index).status(HttpStatus.BAD_REQUEST.value()).message(message).build());
+        }
+        Company company = companyMapper.dtoToEntity(companyDto);
+        company.setId(new ObjectId().toHexString());
+        company.setActivated(Optional.ofNullable(company.getActivated()).orElse(true));
+        company.setCreatedByUser(user);
+        company.setCreatedDate(now);
+        company.setLastModifiedByUser(user);
+        company.setLastModifiedDate(now);
+        return new BulkItem(index, company, null);
+    }
+
+    private Flux<BulkResultDto> insertChunk(List<BulkItem> chunk) {
+        List<Company> companies = chunk.stream()
+            .filter(i -> i.company != null)
+            .map(i -> i.company)
+            .collect(Collectors.toList());
+        Mono<List<BulkWriteError>> writeErrors = (companies.isEmpty() ? Mono.just(new ArrayList<>()) :
+            Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return companyRepository.insertAllUnordered(companies)
+                    .doFinally(s -> sample.stop(meterRegistry.timer(BULK_CHUNK_METRIC)));
+            }));
+        return writeErrors.flatMapIterable(errors -> {
+            Map<Integer, BulkWriteError> errorsByIndex = errors.stream()
+                .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+            Iterator<Company> inserted = companies.iterator();
+            List<BulkResultDto> results = new ArrayList<>(chunk.size());
+            int position = 0;
+            for (BulkItem item : chunk) {
+                if (item.result != null) {
+                    results.add(item.result);
+                    continue;
+                }
+                String id = inserted.next().getId();
+                BulkWriteError error = errorsByIndex.get(position++);
+                results.add(error == null ? BulkResultDto.builder().index(item.index).id(id).status(HttpStatus.CREATED.value()).build() :
+                    BulkResultDto.builder().index(item.index).status(writeErrorStatus(error).value()).message(error.getMessage()).build());
+            }
+            return results;
+        });
+    }
+
+    private HttpStatus writeErrorStatus(BulkWriteError error) {
+        return (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY ? HttpStatus.CONFLICT : HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Either a company ready to insert or the result of an item rejected before reaching mongo.
+     */
+    @AllArgsConstructor
+    private static class BulkItem {
+        private final long index;
+        private final Company company;
+        private final BulkResultDto result;
     }
 
 	@Mapper(componentModel = "spring")
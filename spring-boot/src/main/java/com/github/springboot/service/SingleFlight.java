@@ -0,0 +1,98 @@
+package com.github.springboot.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.github.springboot.config.RequestDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesce identical concurrent reads: callers asking for the same key while a read is in flight subscribe to that read
+ * instead of starting their own, and the result is fanned out to all of them.
+ * <p>
+ * A read is forgotten as soon as it completes or fails, so nothing is served after it finished and there is no staleness.
+ * It is cancelled once every caller went away, e.g. over its deadline, so a slow mongo does not keep queries nobody waits for.
+ * The read runs with the {@link RequestDeadline} of the caller that started it, callers with a later deadline start their own read
+ * so a short deadline never fails them.
+ * Every call is counted as singleflight.requests tagged by operation and coalesced, coalesced=true over the total is the coalescing ratio.
+ * Shared results are the same instances for every caller so they must not be changed.
+ */
+@Component
+public class SingleFlight {
+    static final String REQUESTS_METRIC = "singleflight.requests";
+
+    private final Map<List<Object>, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param operation name of the read, keys of different operations never match
+     * @param key identifies identical reads, it must include whatever changes the result, e.g. the user the read is filtered by
+     * @param read started once per in flight key
+     */
+    public <T> Mono<T> mono(String operation, Object key, Supplier<Mono<T>> read) {
+        return flux(operation, key, () -> read.get().flux()).singleOrEmpty();
+    }
+
+    /**
+     * Late callers receive every item from the first one, so the whole result is buffered while the read is in flight.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> flux(String operation, Object key, Supplier<Flux<T>> read) {
+        return Flux.deferWithContext(context -> {
+            List<Object> flightKey = Arrays.asList(operation, key);
+            RequestDeadline deadline = RequestDeadline.from(context).orElse(null);
+            AtomicBoolean started = new AtomicBoolean();
+            Flight<T> flight = (Flight<T>) inFlight.compute(flightKey, (k, current) -> {
+                if (current != null && current.outlasts(deadline)) {
+                    return current;
+                }
+                started.set(true);
+                return start(k, read, deadline);
+            });
+            meterRegistry.counter(REQUESTS_METRIC, "operation", operation, "coalesced", String.valueOf(!started.get())).increment();
+            return flight.result;
+        });
+    }
+
+    private <T> Flight<T> start(List<Object> flightKey, Supplier<Flux<T>> read, RequestDeadline deadline) {
+        Flight<?>[] flight = new Flight<?>[1];
+        Flux<T> result = read.get()
+            .subscriberContext(c -> RequestDeadline.replaceIn(c, deadline))
+            .doFinally(s -> inFlight.remove(flightKey, flight[0]))
+            .replay()
+            .refCount();
+        flight[0] = new Flight<>(result, deadline);
+        return (Flight<T>) flight[0];
+    }
+
+    private static class Flight<T> {
+        private final Flux<T> result;
+
+        private final RequestDeadline deadline;
+
+        Flight(Flux<T> result, RequestDeadline deadline) {
+            this.result = result;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return whether the read lasts as long as the caller waits, a read without deadline always does
+         */
+        boolean outlasts(RequestDeadline caller) {
+            return deadline == null || (caller != null && !caller.isAfter(deadline));
+        }
+    }
+}
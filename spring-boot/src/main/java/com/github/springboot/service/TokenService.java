@@ -0,0 +1,72 @@
+package com.github.springboot.service;
+
+import java.security.KeyPair;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import com.github.springboot.config.JwtConfigurationProperties;
+import com.github.springboot.dto.AuthorizationDto;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Issue signed tokens, the signer and the encoded header are created once and shared by every request.
+ */
+@Profile("auth")
+@Service
+public class TokenService {
+    public static final String KEY_ID = "test";
+
+    private final JWSSigner signer;
+
+    private final JWSHeader header;
+
+    private final Duration expiration;
+
+    public TokenService(KeyPair keyPair, JwtConfigurationProperties configurationProperties) throws ParseException {
+        this.signer = new RSASSASigner(keyPair.getPrivate());
+        // Parsing keeps the encoded header so it is not serialized again for every token
+        this.header = JWSHeader.parse(new JWSHeader.Builder(JWSAlgorithm.RS256)
+            .keyID(KEY_ID)
+            .type(JOSEObjectType.JWT)
+            .build()
+            .toBase64URL());
+        this.expiration = Duration.ofMinutes(configurationProperties.getExpireInMinutes());
+    }
+
+    /**
+     * Create a signed token for the user, safe to call concurrently.
+     * @param authorizationDto user and roles
+     * @return serialized token
+     * @throws JOSEException when signing fails
+     */
+    public String createToken(AuthorizationDto authorizationDto) throws JOSEException {
+        Instant now = Instant.now();
+        Date issueTime = Date.from(now);
+        JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
+            .subject(authorizationDto.getUser())
+            .expirationTime(Date.from(now.plus(expiration)))
+            .issueTime(issueTime)
+            .notBeforeTime(issueTime)
+            .claim("authorities", authorizationDto.getRoles())
+            .claim("scope", "read")
+            .jwtID(UUID.randomUUID().toString())
+            .issuer("jwt")
+            .build();
+        SignedJWT signedJWT = new SignedJWT(header, jwtClaimsSet);
+        signedJWT.sign(signer);
+        return signedJWT.serialize();
+    }
+}
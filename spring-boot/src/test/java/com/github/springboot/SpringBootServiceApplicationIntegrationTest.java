@@ -11,7 +11,6 @@ import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.springboot.config.SpringSecurityAuditorAware;
 import com.github.springboot.dto.AuthorizationDto;
 import com.github.springboot.dto.CompanyDto;
 import com.github.springboot.model.Company;
@@ -36,7 +35,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -58,6 +56,7 @@ import static org.springframework.web.reactive.function.BodyInserters.fromValue;
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = SpringBootServiceApplication.class,
 		properties = {"configuration.swagger=false",
+            "cache.admin-companies.enabled=false",
             "logging.level.com.github.springboot=debug"})
 @AutoConfigureWebTestClient(timeout = "1s")
 @AutoConfigureWireMock(port = 0)
@@ -72,9 +71,6 @@ public class SpringBootServiceApplicationIntegrationTest {
 	@Autowired
     CompanyRepository companyRepository;
 
-	@Autowired
-    SpringSecurityAuditorAware springSecurityAuditorAware;
-
 	@Autowired
     OAuth2ResourceServerProperties oAuth2ResourceServerProperties;
 
@@ -106,9 +102,6 @@ public class SpringBootServiceApplicationIntegrationTest {
         stubFor(get(anyUrl())
             .willReturn(aResponse().withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).withBody(jsonPublicKey)));
 
-        springSecurityAuditorAware.setCurrentAuthenticatedUser(new TestingAuthenticationToken("master@gmail.com", "pass",
-            AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
-
         companyRepository.save(Company.builder()
             .name("Company Master")
             .activated(true)
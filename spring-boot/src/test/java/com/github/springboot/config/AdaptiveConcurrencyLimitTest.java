@@ -0,0 +1,86 @@
+package com.github.springboot.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+    static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    AtomicLong now = new AtomicLong();
+
+    @Test
+    public void whenLimitIsReachedShouldRejectUntilReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, THRESHOLD, 0.5);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.ignore();
+
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void whenRequestsAreFastAndLimitIsUsedShouldIncreaseTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3, THRESHOLD, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(3);
+        assertThat(limit.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenRequestsAreSlowOrFailShouldDecreaseTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 10, THRESHOLD, 0.5, now::get);
+
+        limit.tryAcquire();
+        release(limit, TimeUnit.MILLISECONDS.toNanos(200), false);
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+
+        limit.tryAcquire();
+        release(limit, TimeUnit.MILLISECONDS.toNanos(10), true);
+        limit.tryAcquire();
+        release(limit, TimeUnit.MILLISECONDS.toNanos(10), true);
+
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenConcurrentRequestsAreSlowShouldDecreaseTheLimitOnce() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 10, 1000, THRESHOLD, 0.9, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        for (int i = 0; i < 100; i++) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(200), i % 2 == 0);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(90);
+        assertThat(limit.getInFlight()).isEqualTo(0);
+
+        limit.tryAcquire();
+        release(limit, TimeUnit.MILLISECONDS.toNanos(200), false);
+
+        assertThat(limit.getLimit()).isEqualTo(81);
+    }
+
+    private void release(AdaptiveConcurrencyLimit limit, long latencyNanos, boolean failed) {
+        now.addAndGet(latencyNanos);
+        limit.release(latencyNanos, failed);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.test.StepVerifier;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlFilterTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    AdmissionControlProperties properties = new AdmissionControlProperties();
+
+    @Test
+    public void whenReadLimitIsReachedShouldRejectReadsWithRetryAfterButNotWrites() {
+        properties.setRead(new AdmissionControlProperties.Limit(1, 1, 1, Duration.ofSeconds(1)));
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        AdmissionControlFilter filter = filter();
+        MonoProcessor<Void> pending = MonoProcessor.create();
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies/1")), e -> pending).subscribe();
+        MockServerWebExchange rejected = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies"));
+        StepVerifier.create(filter.filter(rejected, ok())).verifyComplete();
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/companies"));
+        StepVerifier.create(filter.filter(write, ok())).verifyComplete();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(write.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.get(AdmissionControlFilter.REJECTED_METRIC).tag("type", "read").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_METRIC).tag("type", "read").gauge().value()).isEqualTo(1);
+
+        pending.onComplete();
+
+        assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_METRIC).tag("type", "read").gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenPathIsAStreamABulkImportOrOutsideTheApiShouldNotBeLimited() {
+        properties.setRead(new AdmissionControlProperties.Limit(1, 1, 1, Duration.ofSeconds(1)));
+        properties.setWrite(new AdmissionControlProperties.Limit(1, 1, 1, Duration.ofSeconds(1)));
+        AdmissionControlFilter filter = filter();
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies/stream")), e -> Mono.never()).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/api/companies/bulk")), e -> Mono.never()).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health")), e -> Mono.never()).subscribe();
+
+        assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_METRIC).tag("type", "read").gauge().value()).isEqualTo(0);
+        assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_METRIC).tag("type", "write").gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenServerFailsShouldLowerTheLimit() {
+        properties.setWrite(new AdmissionControlProperties.Limit(10, 1, 10, Duration.ofSeconds(1)));
+        properties.setBackoffRatio(0.5);
+        AdmissionControlFilter filter = filter();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.put("/api/companies/1"));
+
+        StepVerifier.create(filter.filter(exchange, e -> {
+            e.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return Mono.empty();
+        })).verifyComplete();
+
+        assertThat(meterRegistry.get(AdmissionControlFilter.LIMIT_METRIC).tag("type", "write").gauge().value()).isEqualTo(5);
+    }
+
+    private AdmissionControlFilter filter() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        return new AdmissionControlFilter(properties, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private WebFilterChain ok() {
+        return e -> {
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+}
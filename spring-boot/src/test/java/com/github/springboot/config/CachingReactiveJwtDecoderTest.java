@@ -0,0 +1,79 @@
+package com.github.springboot.config;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingReactiveJwtDecoderTest {
+    @Test
+    public void whenDecodeSameTokenShouldVerifyItOnlyOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(token -> {
+            calls.incrementAndGet();
+            return Mono.just(jwt(token, Instant.now().plusSeconds(60)));
+        }, 10, meterRegistry);
+
+        Jwt first = decoder.decode("token").block();
+        Jwt second = decoder.decode("token").block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenTokenIsExpiredOrHasNoExpirationShouldNotCacheIt() {
+        AtomicInteger calls = new AtomicInteger();
+        ReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(token -> {
+            calls.incrementAndGet();
+            return Mono.just(jwt(token, "expired".equals(token) ? Instant.now().minusSeconds(1) : null));
+        }, 10, new SimpleMeterRegistry());
+
+        decoder.decode("expired").block();
+        decoder.decode("expired").block();
+        decoder.decode("no-exp").block();
+        decoder.decode("no-exp").block();
+
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void whenDecodeFailsShouldNotCacheTheFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        ReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(token -> {
+            calls.incrementAndGet();
+            return Mono.error(new JwtException("Invalid token"));
+        }, 10, new SimpleMeterRegistry());
+
+        StepVerifier.create(decoder.decode("invalid"))
+            .expectError(JwtException.class)
+            .verify();
+        StepVerifier.create(decoder.decode("invalid"))
+            .expectError(JwtException.class)
+            .verify();
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("me")
+            .issuedAt(Instant.now().minusSeconds(10));
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+}
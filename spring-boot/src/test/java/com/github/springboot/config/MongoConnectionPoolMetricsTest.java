@@ -0,0 +1,72 @@
+package com.github.springboot.config;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolOpenedEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MongoConnectionPoolMetricsTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    MongoConnectionPoolMetrics mongoConnectionPoolMetrics = new MongoConnectionPoolMetrics(meterRegistry);
+
+    ServerId serverId = new ServerId(new ClusterId("cluster"), new ServerAddress("localhost", 27017));
+
+    @Test
+    public void whenConnectionsAreCheckedOutShouldCountIdleConnections() {
+        mongoConnectionPoolMetrics.connectionPoolOpened(new ConnectionPoolOpenedEvent(serverId, ConnectionPoolSettings.builder().build()));
+        ConnectionId first = new ConnectionId(serverId);
+        ConnectionId second = new ConnectionId(serverId);
+        mongoConnectionPoolMetrics.connectionAdded(new ConnectionAddedEvent(first));
+        mongoConnectionPoolMetrics.connectionAdded(new ConnectionAddedEvent(second));
+        mongoConnectionPoolMetrics.connectionCheckedOut(new ConnectionCheckedOutEvent(first));
+
+        assertThat(idle()).isEqualTo(1);
+
+        mongoConnectionPoolMetrics.connectionCheckedIn(new ConnectionCheckedInEvent(first));
+
+        assertThat(idle()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenPoolIsExhaustedShouldCountAndTimeTheWait() throws InterruptedException {
+        mongoConnectionPoolMetrics.connectionPoolOpened(new ConnectionPoolOpenedEvent(serverId, ConnectionPoolSettings.builder().build()));
+        mongoConnectionPoolMetrics.waitQueueEntered(new ConnectionPoolWaitQueueEnteredEvent(serverId));
+        mongoConnectionPoolMetrics.waitQueueEntered(new ConnectionPoolWaitQueueEnteredEvent(serverId));
+        TimeUnit.MILLISECONDS.sleep(20);
+        mongoConnectionPoolMetrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId));
+        mongoConnectionPoolMetrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId));
+        mongoConnectionPoolMetrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId));
+
+        assertThat(meterRegistry.get(MongoConnectionPoolMetrics.EXHAUSTED_METRIC).tag("server.address", "localhost:27017").counter().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(MongoConnectionPoolMetrics.WAIT_METRIC).timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(MongoConnectionPoolMetrics.WAIT_METRIC).timer().max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    public void whenPoolIsClosedShouldRemoveItsMeters() {
+        mongoConnectionPoolMetrics.connectionPoolOpened(new ConnectionPoolOpenedEvent(serverId, ConnectionPoolSettings.builder().build()));
+        mongoConnectionPoolMetrics.connectionPoolClosed(new ConnectionPoolClosedEvent(serverId));
+
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private double idle() {
+        return meterRegistry.get(MongoConnectionPoolMetrics.IDLE_METRIC).tag("server.address", "localhost:27017").gauge().value();
+    }
+}
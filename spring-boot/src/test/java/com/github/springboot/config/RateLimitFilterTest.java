@@ -0,0 +1,99 @@
+package com.github.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    RateLimitProperties properties = new RateLimitProperties();
+
+    @Test
+    public void whenUserIsOverItsRateShouldRejectWithRetryAfterButNotOtherUsers() {
+        properties.setDefaultLimit(new RateLimitProperties.Limit(0.5, 1));
+        RateLimitFilter filter = filter();
+
+        ServerWebExchange first = exchange("/api/companies", "user", "ROLE_COMPANY_SAVE");
+        StepVerifier.create(filter.filter(first, ok())).verifyComplete();
+        ServerWebExchange rejected = exchange("/api/companies/1", "user", "ROLE_COMPANY_SAVE");
+        StepVerifier.create(filter.filter(rejected, ok())).verifyComplete();
+        ServerWebExchange other = exchange("/api/companies", "other", "ROLE_COMPANY_SAVE");
+        StepVerifier.create(filter.filter(other, ok())).verifyComplete();
+
+        assertThat(first.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(other.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(meterRegistry.get(RateLimitFilter.REJECTED_METRIC).tag("role", RateLimitFilter.DEFAULT_ROLE).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RateLimitFilter.BUCKETS_METRIC).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenUserHasSeveralRolesShouldUseTheHighestRate() {
+        properties.setDefaultLimit(new RateLimitProperties.Limit(0.01, 1));
+        properties.getRoles().put("ROLE_COMPANY_READ", new RateLimitProperties.Limit(0.01, 2));
+        properties.getRoles().put("ROLE_ADMIN", new RateLimitProperties.Limit(0.02, 3));
+        RateLimitFilter filter = filter();
+
+        for (int i = 0; i < 3; i++) {
+            ServerWebExchange exchange = exchange("/api/companies", "admin", "ROLE_COMPANY_READ", "ROLE_ADMIN");
+            StepVerifier.create(filter.filter(exchange, ok())).verifyComplete();
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        ServerWebExchange rejected = exchange("/api/companies", "admin", "ROLE_COMPANY_READ", "ROLE_ADMIN");
+        StepVerifier.create(filter.filter(rejected, ok())).verifyComplete();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(meterRegistry.get(RateLimitFilter.REJECTED_METRIC).tag("role", "ROLE_ADMIN").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenPathIsOutsideTheApiOrThereIsNoUserShouldNotBeLimited() {
+        properties.setDefaultLimit(new RateLimitProperties.Limit(0.5, 1));
+        RateLimitFilter filter = filter();
+
+        for (int i = 0; i < 2; i++) {
+            ServerWebExchange health = exchange("/actuator/health", "user");
+            StepVerifier.create(filter.filter(health, ok())).verifyComplete();
+            MockServerWebExchange anonymous = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies"));
+            StepVerifier.create(filter.filter(anonymous, ok())).verifyComplete();
+
+            assertThat(health.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(anonymous.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    private RateLimitFilter filter() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        return new RateLimitFilter(properties, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private ServerWebExchange exchange(String path, String user, String... roles) {
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken(user, "pass", roles);
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)).mutate()
+            .principal(Mono.just(authentication))
+            .build();
+    }
+
+    private WebFilterChain ok() {
+        return e -> {
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+}
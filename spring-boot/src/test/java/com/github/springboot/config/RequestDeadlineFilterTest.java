@@ -0,0 +1,108 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestDeadlineFilterTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    RequestDeadlineProperties properties = new RequestDeadlineProperties();
+
+    @Test
+    public void whenRequestIsSlowerThanItsTimeoutShouldCancelItAndAnswerGatewayTimeout() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies/1")
+            .header(RequestDeadlineFilter.TIMEOUT_HEADER, "50"));
+
+        StepVerifier.create(filter().filter(exchange, e -> Mono.<Void>never().doOnCancel(() -> cancelled.set(true))))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        assertThat(cancelled).isTrue();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(meterRegistry.get(RequestDeadlineFilter.EXPIRED_METRIC).tags("type", "read", "cause", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenDeadlineIsAlreadyPastShouldAnswerGatewayTimeoutWithoutHandlingIt() {
+        AtomicBoolean handled = new AtomicBoolean();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.put("/api/companies/1")
+            .header(RequestDeadlineFilter.DEADLINE_HEADER, String.valueOf(System.currentTimeMillis() - 1000)));
+
+        StepVerifier.create(filter().filter(exchange, e -> Mono.fromRunnable(() -> handled.set(true)))).verifyComplete();
+
+        assertThat(handled).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(meterRegistry.get(RequestDeadlineFilter.EXPIRED_METRIC).tags("type", "write", "cause", "inbound").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenMongoExceedsMaxTimeShouldAnswerGatewayTimeout() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies"));
+
+        StepVerifier.create(filter().filter(exchange, e -> Mono.error(new UncategorizedMongoDbException("operation exceeded time limit",
+            new MongoExecutionTimeoutException(50, "operation exceeded time limit"))))).verifyComplete();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(meterRegistry.get(RequestDeadlineFilter.EXPIRED_METRIC).tags("type", "read", "cause", "mongodb").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenClientAsksForMoreThanTheMaxTimeoutShouldBeCappedAndPutInTheContext() {
+        properties.setMaxTimeout(Duration.ofSeconds(3));
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies")
+            .header(RequestDeadlineFilter.TIMEOUT_HEADER, "60000"));
+
+        StepVerifier.create(filter().filter(exchange, e -> Mono.subscriberContext()
+            .doOnNext(c -> remaining.set(RequestDeadline.from(c).map(RequestDeadline::remaining).orElse(null)))
+            .then())).verifyComplete();
+
+        assertThat(remaining.get()).isGreaterThan(Duration.ZERO).isLessThanOrEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    public void whenPathIsAStreamShouldHaveNoDeadline() {
+        AtomicBoolean hasDeadline = new AtomicBoolean();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies/stream"));
+
+        StepVerifier.create(filter().filter(exchange, e -> Mono.subscriberContext()
+            .doOnNext(c -> hasDeadline.set(RequestDeadline.from(c).isPresent()))
+            .then())).verifyComplete();
+
+        assertThat(hasDeadline).isFalse();
+    }
+
+    @Test
+    public void whenTimeoutIsNotANumberShouldBeABadRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/companies/1")
+            .header(RequestDeadlineFilter.TIMEOUT_HEADER, "soon"));
+
+        StepVerifier.create(filter().filter(exchange, e -> Mono.empty()))
+            .expectErrorMatches(e -> e instanceof ResponseStatusException && ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST)
+            .verify();
+    }
+
+    private RequestDeadlineFilter filter() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        return new RequestDeadlineFilter(properties, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+}
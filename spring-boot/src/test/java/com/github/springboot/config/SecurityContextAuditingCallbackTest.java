@@ -0,0 +1,70 @@
+package com.github.springboot.config;
+
+import java.util.List;
+
+import com.github.springboot.model.Company;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SecurityContextAuditingCallbackTest {
+    SecurityContextAuditingCallback securityContextAuditingCallback = new SecurityContextAuditingCallback();
+
+    @Test
+    public void whenSaveConcurrentlyShouldStampEachCompanyWithItsOwnUser() {
+        List<Company> companies = Flux.range(0, 10_000)
+            .parallel(16)
+            .runOn(Schedulers.parallel())
+            .flatMap(i -> Mono.just(Company.builder().name("user" + i).build())
+                .flatMap(c -> securityContextAuditingCallback.onBeforeConvert(c, "companies"))
+                .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication("user" + i))))
+            .sequential()
+            .collectList()
+            .block();
+
+        assertThat(companies).hasSize(10_000);
+        assertThat(companies).allSatisfy(c -> {
+            assertThat(c.getCreatedByUser()).isEqualTo(c.getName());
+            assertThat(c.getLastModifiedByUser()).isEqualTo(c.getName());
+        });
+    }
+
+    @Test
+    public void whenUpdateShouldKeepCreatedByUser() {
+        Company company = Company.builder().id("id").name("Test").createdByUser("me").build();
+
+        StepVerifier.create(securityContextAuditingCallback.onBeforeConvert(company, "companies")
+                .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication("admin"))))
+            .assertNext(c -> {
+                assertThat(c.getCreatedByUser()).isEqualTo("me");
+                assertThat(c.getLastModifiedByUser()).isEqualTo("admin");
+            })
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void whenThereIsNoAuthenticatedUserShouldUseDefaultAuditor() {
+        StepVerifier.create(securityContextAuditingCallback.onBeforeConvert(Company.builder().name("Test").build(), "companies"))
+            .assertNext(c -> {
+                assertThat(c.getCreatedByUser()).isEqualTo(SecurityContextAuditingCallback.DEFAULT_AUDITOR);
+                assertThat(c.getLastModifiedByUser()).isEqualTo(SecurityContextAuditingCallback.DEFAULT_AUDITOR);
+            })
+            .expectComplete()
+            .verify();
+    }
+
+    private static TestingAuthenticationToken authentication(String user) {
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken(user, "pass", AuthorityUtils.createAuthorityList("ROLE_COMPANY_CREATE"));
+        authentication.setAuthenticated(true);
+        return authentication;
+    }
+}
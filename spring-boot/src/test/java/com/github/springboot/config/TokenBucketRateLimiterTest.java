@@ -0,0 +1,58 @@
+package com.github.springboot.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketRateLimiterTest {
+    AtomicLong now = new AtomicLong();
+
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(Duration.ofMinutes(1), 2, now::get);
+
+    @Test
+    public void whenBurstIsTakenShouldRejectUntilTheNextPermit() {
+        TokenBucketRateLimiter.Rate rate = new TokenBucketRateLimiter.Rate(10, 3);
+
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rateLimiter.tryAcquire("other", rate)).isZero();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isPositive();
+    }
+
+    @Test
+    public void whenIdleForLongerThanTheBurstShouldBeFullAgain() {
+        TokenBucketRateLimiter.Rate rate = new TokenBucketRateLimiter.Rate(1, 2);
+
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isPositive();
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isZero();
+        assertThat(rateLimiter.tryAcquire("user", rate)).isPositive();
+    }
+
+    @Test
+    public void whenBucketsAreIdleShouldBeEvicted() {
+        TokenBucketRateLimiter.Rate rate = new TokenBucketRateLimiter.Rate(1, 1);
+        rateLimiter.tryAcquire("first", rate);
+        rateLimiter.tryAcquire("second", rate);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        rateLimiter.cleanUp();
+
+        assertThat(rateLimiter.size()).isZero();
+    }
+}
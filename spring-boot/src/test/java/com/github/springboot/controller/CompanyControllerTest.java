@@ -2,20 +2,28 @@ package com.github.springboot.controller;
 
 import java.security.interfaces.RSAPublicKey;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.springboot.config.SpringSecurityAuditorAware;
 import com.github.springboot.config.SpringSecurityConfiguration;
+import com.github.springboot.dto.BulkResultDto;
+import com.github.springboot.dto.CompanyCursor;
 import com.github.springboot.dto.CompanyDto;
+import com.github.springboot.dto.CompanyEventDto;
+import com.github.springboot.service.AdminCompaniesSnapshot;
+import com.github.springboot.service.CompanyChangeFeed;
 import com.github.springboot.service.CompanyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
@@ -26,21 +34,28 @@ import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.web.reactive.function.BodyInserters.fromValue;
@@ -48,9 +63,10 @@ import static org.springframework.web.reactive.function.BodyInserters.fromValue;
 @ExtendWith(SpringExtension.class)
 @WebFluxTest(properties = {
         "configuration.initialLoad=false",
-        "configuration.mongo=false"},
+        "configuration.mongo=false",
+        "stream.companies.heartbeat=100ms"},
 controllers = CompanyController.class, excludeAutoConfiguration = MongoReactiveAutoConfiguration.class)
-@Import({SpringSecurityConfiguration.class, ErrorWebFluxAutoConfiguration.class})
+@Import({SpringSecurityConfiguration.class, ErrorWebFluxAutoConfiguration.class, AdminCompaniesSnapshot.class, SimpleMeterRegistry.class})
 @AutoConfigureWireMock(port = 0)
 public class CompanyControllerTest {
 
@@ -61,7 +77,7 @@ public class CompanyControllerTest {
     CompanyService companyService;
 
     @MockBean
-    SpringSecurityAuditorAware springSecurityAuditorAware;
+    CompanyChangeFeed companyChangeFeed;
 
     @MockBean
     RSAPublicKey publicKey;
@@ -101,7 +117,7 @@ public class CompanyControllerTest {
         companyDto.setId("100");
         CompanyDto companyDto1 = new CompanyDto();
         companyDto1.setId("200");
-        when(companyService.findAllActiveCompanies(any())).thenReturn(Flux.fromIterable(Arrays.asList(companyDto, companyDto1)));
+        when(companyService.findAllActiveCompanies(any(), any())).thenReturn(Flux.fromIterable(Arrays.asList(companyDto, companyDto1)));
 
         ParameterizedTypeReference<ServerSentEvent<CompanyDto>> type = new ParameterizedTypeReference<ServerSentEvent<CompanyDto>>() {};
 
@@ -114,6 +130,32 @@ public class CompanyControllerTest {
                 .hasSize(2);
     }
 
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies with admin role twice the first page should be read once - 200 - OK")
+    @WithMockUser(roles = "ADMIN")
+    public void whenCallFindAllTwiceShouldServeFirstPageFromSnapshot() {
+        CompanyDto companyDto = createCompanyDto();
+        companyDto.setId("5ec2e8d2b2a1c43e7d5c4a11");
+        when(companyService.findAllActiveCompanies(null, 5)).thenReturn(Flux.just(companyDto));
+
+        ParameterizedTypeReference<ServerSentEvent<CompanyDto>> type = new ParameterizedTypeReference<ServerSentEvent<CompanyDto>>() {};
+
+        for (int i = 0; i < 2; i++) {
+            client.get().uri("/api/companies?pageSize=5")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(type)
+                .hasSize(1)
+                .value(events -> {
+                    assertThat(events.get(0).data().getName()).isEqualTo(companyDto.getName());
+                    assertThat(CompanyCursor.decode(events.get(0).id(), null)).isEqualTo(companyDto.getId());
+                });
+        }
+
+        verify(companyService, times(1)).findAllActiveCompanies(null, 5);
+    }
+
     @Test
     @DisplayName("Test - When Calling GET - /api/companies with COMPANY_read role the response should be filtered - 200 - OK")
     @WithMockUser(roles = "COMPANY_READ", username = "me")
@@ -121,7 +163,7 @@ public class CompanyControllerTest {
         CompanyDto companyDto = new CompanyDto();
         companyDto.setId("100");
         companyDto.setCreatedByUser("me");
-        when(companyService.findActiveCompaniesByUser(anyString(), any())).thenReturn(Flux.fromIterable(Arrays.asList(companyDto)));
+        when(companyService.findActiveCompaniesByUser(anyString(), any(), any())).thenReturn(Flux.fromIterable(Arrays.asList(companyDto)));
 
         ParameterizedTypeReference<ServerSentEvent<CompanyDto>> type = new ParameterizedTypeReference<ServerSentEvent<CompanyDto>>() {};
 
@@ -134,6 +176,93 @@ public class CompanyControllerTest {
             .hasSize(1);
     }
 
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies with cursor the response should be next page with cursor as event id - 200 - OK")
+    @WithMockUser(roles = "COMPANY_READ", username = "me")
+    public void whenCallFindAllWithCursorShouldReturnNextPage() {
+        String lastId = "5ec2e8d2b2a1c43e7d5c4a10";
+        CompanyDto companyDto = new CompanyDto();
+        companyDto.setId("5ec2e8d2b2a1c43e7d5c4a11");
+        companyDto.setCreatedByUser("me");
+        when(companyService.findActiveCompaniesByUser("me", lastId, 1)).thenReturn(Flux.just(companyDto));
+
+        ParameterizedTypeReference<ServerSentEvent<CompanyDto>> type = new ParameterizedTypeReference<ServerSentEvent<CompanyDto>>() {};
+
+        client.get().uri("/api/companies?pageSize=1&cursor={cursor}", CompanyCursor.encode("me", lastId))
+            .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(type)
+            .hasSize(1)
+            .value(events -> assertThat(CompanyCursor.decode(events.get(0).id(), "me")).isEqualTo(companyDto.getId()));
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/stream with admin role should stream every change named by type - 200 - OK")
+    @WithMockUser(roles = "ADMIN")
+    public void whenCallStreamShouldReturnChangesOfEveryCompany() {
+        CompanyDto companyDto = createCompanyDto();
+        when(companyChangeFeed.changes(null)).thenReturn(Flux.just(
+            CompanyEventDto.builder().type(CompanyEventDto.INSERT).id(companyDto.getId()).company(companyDto).build(),
+            CompanyEventDto.builder().type(CompanyEventDto.DELETE).id(companyDto.getId()).build()));
+
+        ParameterizedTypeReference<ServerSentEvent<CompanyEventDto>> type = new ParameterizedTypeReference<ServerSentEvent<CompanyEventDto>>() {};
+
+        client.get().uri("/api/companies/stream")
+            .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM_VALUE)
+            .expectBodyList(type)
+            .hasSize(2)
+            .value(events -> {
+                assertThat(events.get(0).event()).isEqualTo(CompanyEventDto.INSERT);
+                assertThat(events.get(0).data().getCompany().getName()).isEqualTo("Test");
+                assertThat(events.get(1).event()).isEqualTo(CompanyEventDto.DELETE);
+                assertThat(events.get(1).data().getId()).isEqualTo(companyDto.getId());
+            });
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/stream with COMPANY_READ role should only stream own changes with heartbeats while idle - 200 - OK")
+    @WithMockUser(roles = "COMPANY_READ", username = "me")
+    public void whenCallStreamShouldSendHeartbeatsWhileIdle() {
+        when(companyChangeFeed.changes("me")).thenReturn(Flux.never());
+
+        ParameterizedTypeReference<ServerSentEvent<CompanyEventDto>> type = new ParameterizedTypeReference<ServerSentEvent<CompanyEventDto>>() {};
+
+        Flux<ServerSentEvent<CompanyEventDto>> events = client.get().uri("/api/companies/stream")
+            .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(type)
+            .getResponseBody();
+
+        StepVerifier.create(events)
+            .assertNext(e -> assertThat(e.comment()).isEqualTo("heartbeat"))
+            .assertNext(e -> assertThat(e.comment()).isEqualTo("heartbeat"))
+            .thenCancel()
+            .verify();
+        verify(companyChangeFeed).changes("me");
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies with cursor issued for another user should response 400 - Bad Request")
+    @WithMockUser(roles = "COMPANY_READ", username = "me")
+    public void whenCallFindAllWithCursorFromAnotherUserShouldResponseBadRequest() {
+        client.get().uri("/api/companies?cursor={cursor}", CompanyCursor.encode("another_user", "5ec2e8d2b2a1c43e7d5c4a10"))
+            .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        client.get().uri("/api/companies?cursor={cursor}", "invalid")
+            .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        verify(companyService, never()).findActiveCompaniesByUser(anyString(), any(), any());
+    }
+
     @Test
     @DisplayName("Test - When Calling GET - /api/companies/{id} with valid authorization the response should be company - 200 - OK")
     @WithMockUser(roles = "COMPANY_READ", username = "me")
@@ -184,6 +313,103 @@ public class CompanyControllerTest {
                 .expectBody().jsonPath("$.id").value(equalTo(companyDto.getId()));
     }
 
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies/bulk with valid authorization the response should be a result per company - 200 - OK")
+    @WithMockUser(roles = "COMPANY_CREATE")
+    public void whenCallCreateBulkShouldReturnResultPerCompany() throws Exception {
+        when(companyService.saveAll(any(), eq("user"))).thenReturn(Flux.just(
+            BulkResultDto.builder().index(0).id("123").status(201).build(),
+            BulkResultDto.builder().index(1).status(400).message("name must not be blank").build()));
+
+        client.post().uri("/api/companies/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(fromValue(convertToJson(Arrays.asList(createCompanyDto(), new CompanyDto()))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("123")
+                .jsonPath("$[0].status").isEqualTo(201)
+                .jsonPath("$[1].status").isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies/bulk with newline delimited json the response should be the import totals - 200 - OK")
+    @WithMockUser(roles = "COMPANY_CREATE")
+    public void whenCallImportCompaniesShouldDecodeEachLineAndReturnTotals() throws Exception {
+        when(companyService.importAll(any(), eq("user"))).thenAnswer(i -> importLines(i.getArgument(0)));
+
+        String body = convertToJson(createCompanyDto()) + "\n" + convertToJson(new CompanyDto()) + "\n" + convertToJson(createCompanyDto()) + "\n";
+        client.post().uri("/api/companies/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .contentType(MediaType.valueOf("application/x-ndjson"))
+                .body(fromValue(body))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(3)
+                .jsonPath("$.created").isEqualTo(2)
+                .jsonPath("$.failed").isEqualTo(1)
+                .jsonPath("$.failures[0].index").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test - When Calling POST - /api/companies/bulk with a malformed line the response should count it as failed - 200 - OK")
+    @WithMockUser(roles = "COMPANY_CREATE")
+    public void whenCallImportCompaniesWithMalformedLineShouldFailOnlyThatLine() throws Exception {
+        when(companyService.importAll(any(), eq("user"))).thenAnswer(i -> importLines(i.getArgument(0)));
+
+        String body = convertToJson(createCompanyDto()) + "\n{\"name\": \n" + convertToJson(createCompanyDto());
+        client.post().uri("/api/companies/bulk")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .contentType(MediaType.valueOf("application/x-ndjson"))
+                .body(fromValue(body))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(3)
+                .jsonPath("$.created").isEqualTo(2)
+                .jsonPath("$.failed").isEqualTo(1)
+                .jsonPath("$.failures[0].index").isEqualTo(1)
+                .jsonPath("$.failures[0].status").isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/export with admin role the response should be the requested fields of each company - 200 - OK")
+    @WithMockUser(roles = "ADMIN")
+    public void whenCallExportShouldWriteRequestedFieldsOfEachCompany() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", "123");
+        row.put("name", "Acme, Inc");
+        when(companyService.export(eq(Arrays.asList("id", "name")), eq(50))).thenAnswer(i -> Flux.just(row, row));
+
+        client.get().uri("/api/companies/export?fields=id,name&batchSize=50")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.valueOf("application/x-ndjson"))
+                .expectBody(String.class).isEqualTo("{\"id\":\"123\",\"name\":\"Acme, Inc\"}\n{\"id\":\"123\",\"name\":\"Acme, Inc\"}\n");
+
+        client.get().uri("/api/companies/export?fields=id,name&batchSize=50&format=csv")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.valueOf("text/csv"))
+                .expectBody(String.class).isEqualTo("id,name\n123,\"Acme, Inc\"\n123,\"Acme, Inc\"\n");
+    }
+
+    @Test
+    @DisplayName("Test - When Calling GET - /api/companies/export with an unknown field the response should be 400 - Bad Request")
+    @WithMockUser(roles = "ADMIN")
+    public void whenCallExportWithUnknownFieldShouldReturnBadRequest() {
+        client.get().uri("/api/companies/export?fields=id,password")
+                .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(companyService, never()).export(any(), anyInt());
+    }
+
     @Test
     @DisplayName("Test - When Calling PUT - /api/companies/{id} with valid authorization the response should be a company - 200 - OK")
     @WithMockUser(roles = "COMPANY_SAVE")
@@ -191,8 +417,7 @@ public class CompanyControllerTest {
         CompanyDto companyDto = createCompanyDto();
         companyDto.setId(UUID.randomUUID().toString());
         companyDto.setName("New Name");
-        when(companyService.findById(anyString())).thenReturn(Mono.just(companyDto));
-        when(companyService.save(any(CompanyDto.class))).thenReturn(Mono.just(companyDto));
+        when(companyService.update(anyString(), any(CompanyDto.class), anyString(), anyBoolean())).thenReturn(Mono.just(companyDto));
 
         client.put().uri("/api/companies/{id}", companyDto.getId())
                 .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
@@ -203,6 +428,8 @@ public class CompanyControllerTest {
                 .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
                 .expectBody().jsonPath("$.id").value(equalTo(companyDto.getId()))
                 .jsonPath("$.name").value(equalTo(companyDto.getName()));
+
+        verify(companyService).update(eq(companyDto.getId()), any(CompanyDto.class), eq("user"), eq(false));
     }
 
     @Test
@@ -211,7 +438,7 @@ public class CompanyControllerTest {
     public void whenCallUpdateShouldResponseNotFound() throws Exception {
         CompanyDto companyDto = createCompanyDto();
         companyDto.setId("999");
-        when(companyService.findById(anyString())).thenReturn(Mono.empty());
+        when(companyService.update(anyString(), any(CompanyDto.class), anyString(), anyBoolean())).thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
 
         client.put().uri("/api/companies/{id}", companyDto.getId())
                 .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
@@ -228,13 +455,14 @@ public class CompanyControllerTest {
         CompanyDto companyDto = new CompanyDto();
         companyDto.setId("12345");
         companyDto.setCreatedByUser("mock");
-        when(companyService.findById(anyString())).thenReturn(Mono.just(companyDto));
-        when(companyService.deleteById(anyString())).thenReturn(Mono.empty());
+        when(companyService.delete(anyString(), anyString(), anyBoolean())).thenReturn(Mono.empty());
 
         client.delete().uri("/api/companies/{id}", companyDto.getId())
                 .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
                 .exchange()
                 .expectStatus().is2xxSuccessful();
+
+        verify(companyService).delete("12345", "mock", false);
     }
 
     @Test
@@ -244,8 +472,8 @@ public class CompanyControllerTest {
         CompanyDto companyDto = new CompanyDto();
         companyDto.setId("12345");
         companyDto.setCreatedByUser("mock");
-        when(companyService.findById(anyString())).thenReturn(Mono.just(companyDto));
-        when(companyService.deleteById(anyString())).thenReturn(Mono.empty());
+        when(companyService.delete(anyString(), anyString(), anyBoolean()))
+            .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "User(test) does not have access to delete this resource")));
 
         client.delete().uri("/api/companies/{id}", companyDto.getId())
             .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
@@ -258,7 +486,7 @@ public class CompanyControllerTest {
     @DisplayName("Test - When Calling DELETE - /api/companies/{id} with id that does not exist should response 404 - Not Found")
     @WithMockUser(roles = "COMPANY_DELETE")
     public void whenCallDeleteShouldResponseNotFound() {
-        when(companyService.findById(anyString())).thenReturn(Mono.empty());
+        when(companyService.delete(anyString(), anyString(), anyBoolean())).thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
 
         client.delete().uri("/api/companies/{id}", "12345")
             .header(HttpHeaders.AUTHORIZATION, "MOCK JWT")
@@ -268,6 +496,19 @@ public class CompanyControllerTest {
         verify(companyService, never()).deleteById(anyString());
     }
 
+    private Flux<BulkResultDto> importLines(Flux<String> lines) {
+        return lines.index()
+            .map(l -> BulkResultDto.builder().index(l.getT1()).status(isCompany(l.getT2()) ? 201 : 400).build());
+    }
+
+    private boolean isCompany(String line) {
+        try {
+            return objectMapper.readValue(line, CompanyDto.class).getName() != null;
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
     private String convertToJson(Object object) throws JsonProcessingException {
         return objectMapper.writeValueAsString(object);
     }
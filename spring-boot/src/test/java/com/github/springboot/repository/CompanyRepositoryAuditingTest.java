@@ -0,0 +1,79 @@
+package com.github.springboot.repository;
+
+import java.util.List;
+
+import com.github.springboot.config.SecurityContextAuditingCallback;
+import com.github.springboot.model.Company;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@DataMongoTest(properties = {"configuration.initialLoad=false"})
+@Import(SecurityContextAuditingCallback.class)
+public class CompanyRepositoryAuditingTest {
+    private static final int COMPANIES = 1_000;
+
+    private static final int CONCURRENCY = 64;
+
+    @Autowired
+    CompanyRepository companyRepository;
+
+    @Test
+    @DisplayName("Test - Concurrent saves of different users stamp each company with the user of its own request")
+    public void whenSaveConcurrentlyShouldStampEachCompanyWithItsOwnUser() {
+        List<Company> created = Flux.range(0, COMPANIES)
+            .flatMap(i -> companyRepository.save(Company.builder().name("user" + i).build())
+                .subscribeOn(Schedulers.parallel())
+                .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication("user" + i))), CONCURRENCY)
+            .collectList()
+            .block();
+
+        assertThat(created).hasSize(COMPANIES);
+        assertThat(companyRepository.findAll().collectList().block())
+            .hasSize(COMPANIES)
+            .allSatisfy(c -> {
+                assertThat(c.getCreatedByUser()).isEqualTo(c.getName());
+                assertThat(c.getLastModifiedByUser()).isEqualTo(c.getName());
+            });
+
+        Flux.fromIterable(created)
+            .flatMap(c -> companyRepository.save(c)
+                .subscribeOn(Schedulers.parallel())
+                .subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication("admin-" + c.getName()))), CONCURRENCY)
+            .blockLast();
+
+        assertThat(companyRepository.findAll().collectList().block())
+            .hasSize(COMPANIES)
+            .allSatisfy(c -> {
+                assertThat(c.getCreatedByUser()).isEqualTo(c.getName());
+                assertThat(c.getLastModifiedByUser()).isEqualTo("admin-" + c.getName());
+            });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        companyRepository.deleteAll().block();
+    }
+
+    private static TestingAuthenticationToken authentication(String user) {
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken(user, "pass", AuthorityUtils.createAuthorityList("ROLE_COMPANY_CREATE"));
+        authentication.setAuthenticated(true);
+        return authentication;
+    }
+}
@@ -1,25 +1,46 @@
 package com.github.springboot.repository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.springboot.config.CompanyCacheInvalidator;
+import com.github.springboot.config.CompanyIndexManager;
+import com.github.springboot.config.RequestDeadline;
+import com.github.springboot.dto.CompanyDto;
 import com.github.springboot.model.Company;
+import com.github.springboot.service.CompanyCache;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +53,9 @@ public class CompanyRepositoryTest {
     @Autowired
     CompanyRepository companyRepository;
 
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
     @BeforeEach
     public void setup() {
         companyRepository.save(Company.builder().name("Test")
@@ -113,6 +137,153 @@ public class CompanyRepositoryTest {
         assertThat(companies.peek().getName()).isEqualTo("Test");
     }
 
+    @Test
+    public void testFindActiveCompaniesAfterShouldSeekFromLastId() {
+        Company first = companyRepository.findActiveCompanies(PageRequest.of(0, 1)).blockFirst();
+
+        StepVerifier.create(companyRepository.findActiveCompaniesAfter(new ObjectId(first.getId()), PageRequest.of(0, 10)))
+            .assertNext(c -> assertThat(c.getName()).isEqualTo("Test 2"))
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.findActiveCompaniesByUserAfter("me", new ObjectId(first.getId()), PageRequest.of(0, 10)))
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void testEnsureIndexesShouldCreatePartialIndexesForActiveCompanies() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CompanyIndexManager companyIndexManager = new CompanyIndexManager(reactiveMongoTemplate, meterRegistry);
+
+        StepVerifier.create(companyIndexManager.ensureIndexes())
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(reactiveMongoTemplate.indexOps(Company.class).getIndexInfo()
+                .filter(i -> i.getPartialFilterExpression() != null)
+                .map(IndexInfo::getName)
+                .collectList())
+            .assertNext(names -> assertThat(names).containsExactlyInAnyOrder("active_companies_idx", "active_companies_by_user_idx"))
+            .expectComplete()
+            .verify();
+
+        assertThat(meterRegistry.get("mongodb.indexes.missing").gauge().value()).isZero();
+        assertThat(meterRegistry.get("mongodb.indexes.extra").gauge().value()).isZero();
+    }
+
+    @Test
+    public void testEnsureIndexesShouldCountIndexesNotMatchingTheirDeclarationAsMissing() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CompanyIndexManager companyIndexManager = new CompanyIndexManager(reactiveMongoTemplate, meterRegistry);
+        ReactiveIndexOperations indexOperations = reactiveMongoTemplate.indexOps(Company.class);
+        indexOperations.dropIndex("active_companies_idx").onErrorResume(e -> Mono.empty()).block();
+        indexOperations.ensureIndex(new Index("activated", Sort.Direction.ASC).named("active_companies_idx")).block();
+
+        try {
+            StepVerifier.create(companyIndexManager.ensureIndexes())
+                .expectComplete()
+                .verify();
+
+            assertThat(meterRegistry.get("mongodb.indexes.missing").gauge().value()).isEqualTo(1);
+            assertThat(meterRegistry.get("mongodb.indexes.extra").gauge().value()).isZero();
+        } finally {
+            indexOperations.dropIndex("active_companies_idx").block();
+            companyIndexManager.ensureIndexes().block();
+        }
+    }
+
+    @Test
+    public void testInsertAllUnorderedShouldInsertRemainingCompaniesWhenOneFails() {
+        String duplicatedId = companyRepository.findAll().blockFirst().getId();
+        Company duplicated = Company.builder().id(duplicatedId).name("Duplicated").createdByUser("me").activated(true).build();
+        Company company = Company.builder().id(new ObjectId().toHexString()).name("Bulk").createdByUser("me").activated(true).build();
+
+        StepVerifier.create(companyRepository.insertAllUnordered(Arrays.asList(duplicated, company)))
+            .assertNext(errors -> assertThat(errors).extracting(BulkWriteError::getIndex).containsExactly(0))
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.findById(company.getId()))
+            .assertNext(c -> assertThat(c.getName()).isEqualTo("Bulk"))
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void testCompanyCacheInvalidatorShouldEvictChangedCompanies() {
+        Company company = companyRepository.findActiveCompaniesByUser("me", PageRequest.of(0, 1)).blockFirst();
+        Cache<String, CompanyDto> companyCache = Caffeine.newBuilder().build();
+        CompanyCacheInvalidator companyCacheInvalidator = new CompanyCacheInvalidator(reactiveMongoTemplate, new CompanyCache(companyCache));
+
+        StepVerifier.create(companyCacheInvalidator.listen().take(2))
+            .then(() -> companyCache.put(company.getId(), new CompanyDto()))
+            .then(() -> {
+                company.setName("Test changed");
+                companyRepository.save(company).block();
+            })
+            .expectNext(company.getId())
+            .then(() -> assertThat(companyCache.getIfPresent(company.getId())).isNull())
+            .then(() -> companyCache.put(company.getId(), new CompanyDto()))
+            .then(() -> companyRepository.deleteById(company.getId()).block())
+            .expectNext(company.getId())
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+
+        assertThat(companyCache.getIfPresent(company.getId())).isNull();
+    }
+
+    @Test
+    public void testFindAndModifyAndDeleteByIdAndOwnerShouldOnlyMatchOwnedCompanies() {
+        Company company = companyRepository.findActiveCompaniesByUser("me", PageRequest.of(0, 1)).blockFirst();
+
+        StepVerifier.create(companyRepository.findAndModifyByIdAndOwner(company.getId(), "another_user", Update.update("name", "Not mine")))
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.findAndModifyByIdAndOwner(company.getId(), "me", Update.update("name", "Changed")))
+            .assertNext(c -> assertThat(c.getName()).isEqualTo("Changed"))
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.deleteByIdAndOwner(company.getId(), "another_user"))
+            .expectNext(false)
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.deleteByIdAndOwner(company.getId(), null))
+            .expectNext(true)
+            .expectComplete()
+            .verify();
+    }
+
+    @Test
+    public void testFindAndModifyAndExistsByIdShouldRunWithinTheRequestDeadline() {
+        Company company = companyRepository.findActiveCompaniesByUser("me", PageRequest.of(0, 1)).blockFirst();
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+        Instant modified = Instant.now().minus(Duration.ofDays(1)).truncatedTo(ChronoUnit.MILLIS);
+
+        StepVerifier.create(companyRepository.findAndModifyByIdAndOwner(company.getId(), "me", Update.update("name", "Changed").set("lastModifiedDate", modified))
+                .subscriberContext(deadline::addTo))
+            .assertNext(c -> {
+                assertThat(c.getId()).isEqualTo(company.getId());
+                assertThat(c.getName()).isEqualTo("Changed");
+                assertThat(c.getLastModifiedDate()).isEqualTo(modified);
+            })
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.existsById(company.getId()).subscriberContext(deadline::addTo))
+            .expectNext(true)
+            .expectComplete()
+            .verify();
+
+        StepVerifier.create(companyRepository.existsById(new ObjectId().toHexString()).subscriberContext(deadline::addTo))
+            .expectNext(false)
+            .expectComplete()
+            .verify();
+    }
+
     @AfterEach
     public void tearDown() {
         companyRepository.deleteAll().subscribe(a -> log.debug("Delete all companies"));
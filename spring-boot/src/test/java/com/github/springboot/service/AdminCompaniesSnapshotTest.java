@@ -0,0 +1,89 @@
+package com.github.springboot.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.springboot.config.AdminCompaniesCacheProperties;
+import com.github.springboot.dto.CompanyCursor;
+import com.github.springboot.dto.CompanyDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdminCompaniesSnapshotTest {
+    @Mock
+    CompanyService companyService;
+
+    AdminCompaniesCacheProperties properties = new AdminCompaniesCacheProperties();
+
+    AdminCompaniesSnapshot adminCompaniesSnapshot;
+
+    @BeforeEach
+    public void setup() {
+        properties.setRefreshAfterWrite(Duration.ofMillis(500));
+        adminCompaniesSnapshot = new AdminCompaniesSnapshot(companyService, new ObjectMapper(), properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void whenCallFirstPageShouldReturnSerializedCompaniesWithCursor() {
+        when(companyService.findAllActiveCompanies(null, 10)).thenReturn(Flux.just(company("5ec2e8d2b2a1c43e7d5c4a11", "Acme")));
+
+        StepVerifier.create(adminCompaniesSnapshot.firstPage(10))
+            .assertNext(e -> {
+                assertThat(e.data()).contains("\"name\":\"Acme\"");
+                assertThat(CompanyCursor.decode(e.id(), null)).isEqualTo("5ec2e8d2b2a1c43e7d5c4a11");
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    public void whenSnapshotIsStaleShouldServeItAndRefreshInBackground() throws InterruptedException {
+        when(companyService.findAllActiveCompanies(null, 10))
+            .thenReturn(Flux.just(company("5ec2e8d2b2a1c43e7d5c4a11", "Before")))
+            .thenReturn(Flux.just(company("5ec2e8d2b2a1c43e7d5c4a11", "After")));
+
+        assertThat(adminCompaniesSnapshot.firstPage(10).blockFirst().data()).contains("Before");
+        assertThat(adminCompaniesSnapshot.firstPage(10).blockFirst().data()).contains("Before");
+        verify(companyService, times(1)).findAllActiveCompanies(null, 10);
+
+        TimeUnit.MILLISECONDS.sleep(600);
+        assertThat(adminCompaniesSnapshot.firstPage(10).blockFirst().data()).contains("Before");
+
+        String data = null;
+        for (int i = 0; i < 50 && (data == null || data.contains("Before")); i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            data = adminCompaniesSnapshot.firstPage(10).blockFirst().data();
+        }
+        assertThat(data).contains("After");
+        verify(companyService, times(2)).findAllActiveCompanies(null, 10);
+    }
+
+    @Test
+    public void whenPageHasCursorOrIsTooLargeShouldNotBeCached() {
+        properties.setMaximumPageSize(100);
+
+        assertThat(adminCompaniesSnapshot.isCached(null, 100)).isTrue();
+        assertThat(adminCompaniesSnapshot.isCached(null, 101)).isFalse();
+        assertThat(adminCompaniesSnapshot.isCached("5ec2e8d2b2a1c43e7d5c4a11", 10)).isFalse();
+
+        properties.setEnabled(false);
+
+        assertThat(adminCompaniesSnapshot.isCached(null, 10)).isFalse();
+    }
+
+    private CompanyDto company(String id, String name) {
+        return CompanyDto.builder().id(id).name(name).build();
+    }
+}
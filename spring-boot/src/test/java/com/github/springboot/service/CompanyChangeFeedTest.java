@@ -0,0 +1,128 @@
+package com.github.springboot.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.springboot.config.CompanyStreamProperties;
+import com.github.springboot.dto.CompanyEventDto;
+import com.github.springboot.model.Company;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CompanyChangeFeedTest {
+    @Mock
+    ReactiveMongoOperations mongoOperations;
+
+    CompanyServiceImpl.CompanyMapper companyMapper = new CompanyServiceImpl$CompanyMapperImpl();
+
+    CompanyStreamProperties companyStreamProperties = new CompanyStreamProperties();
+
+    MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+
+    ObjectId mine = new ObjectId();
+
+    ObjectId other = new ObjectId();
+
+    @BeforeEach
+    public void setup() {
+        converter.afterPropertiesSet();
+        when(mongoOperations.getCollectionName(Company.class)).thenReturn("companies");
+    }
+
+    @Test
+    public void whenUserIsNotAdminShouldOnlyStreamChangesOfOwnCompanies() {
+        List<ChangeStreamEvent<Company>> events = Arrays.asList(
+            event(OperationType.INSERT, mine, "user"),
+            event(OperationType.INSERT, other, "admin"),
+            event(OperationType.UPDATE, mine, "user"),
+            event(OperationType.DELETE, other, null),
+            event(OperationType.DELETE, mine, null),
+            event(OperationType.DELETE, new ObjectId(), null));
+        when(mongoOperations.changeStream(eq("companies"), any(), eq(Company.class))).thenReturn(Flux.fromIterable(events));
+        CompanyChangeFeed companyChangeFeed = new CompanyChangeFeed(mongoOperations, companyMapper, companyStreamProperties);
+
+        StepVerifier.create(companyChangeFeed.changes("user").map(e -> e.getType() + ":" + e.getId()))
+            .expectNext(CompanyEventDto.INSERT + ":" + mine.toHexString())
+            .expectNext(CompanyEventDto.UPDATE + ":" + mine.toHexString())
+            .expectNext(CompanyEventDto.DELETE + ":" + mine.toHexString())
+            .verifyComplete();
+    }
+
+    @Test
+    public void whenUserIsAdminShouldStreamEveryChange() {
+        when(mongoOperations.changeStream(eq("companies"), any(), eq(Company.class))).thenReturn(Flux.just(
+            event(OperationType.INSERT, mine, "user"),
+            event(OperationType.UPDATE, other, null),
+            event(OperationType.DELETE, other, null)));
+        CompanyChangeFeed companyChangeFeed = new CompanyChangeFeed(mongoOperations, companyMapper, companyStreamProperties);
+
+        StepVerifier.create(companyChangeFeed.changes(null))
+            .assertNext(e -> {
+                assertThat(e.getType()).isEqualTo(CompanyEventDto.INSERT);
+                assertThat(e.getCompany().getName()).isEqualTo("Company " + mine.toHexString());
+                assertThat(e.getCompany().getCreatedByUser()).isEqualTo("user");
+            })
+            .assertNext(e -> {
+                assertThat(e.getType()).isEqualTo(CompanyEventDto.DELETE);
+                assertThat(e.getId()).isEqualTo(other.toHexString());
+                assertThat(e.getCompany()).isNull();
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    public void whenClientIsSlowerThanChangesShouldAskToResync() {
+        companyStreamProperties.setBufferSize(2);
+        TestPublisher<ChangeStreamEvent<Company>> changeStream = TestPublisher.create();
+        when(mongoOperations.changeStream(eq("companies"), any(), eq(Company.class))).thenReturn(changeStream.flux());
+        CompanyChangeFeed companyChangeFeed = new CompanyChangeFeed(mongoOperations, companyMapper, companyStreamProperties);
+
+        StepVerifier.create(companyChangeFeed.changes(null), 0)
+            .then(() -> {
+                for (int i = 0; i < 5; i++) {
+                    changeStream.next(event(OperationType.INSERT, new ObjectId(), "user"));
+                }
+            })
+            .thenRequest(10)
+            .assertNext(e -> assertThat(e.getType()).isEqualTo(CompanyEventDto.INSERT))
+            .assertNext(e -> assertThat(e.getType()).isEqualTo(CompanyEventDto.INSERT))
+            .assertNext(e -> assertThat(e.getType()).isEqualTo(CompanyEventDto.RESYNC))
+            .verifyComplete();
+    }
+
+    /**
+     * @param createdByUser owner of the full document, null for an event without it like a delete
+     */
+    private ChangeStreamEvent<Company> event(OperationType operationType, ObjectId id, String createdByUser) {
+        Document fullDocument = (createdByUser == null ? null : new Document("_id", id)
+            .append("name", "Company " + id.toHexString())
+            .append("createdByUser", createdByUser));
+        ChangeStreamDocument<Document> raw = new ChangeStreamDocument<>(operationType, new BsonDocument(), null, null, fullDocument,
+            new BsonDocument("_id", new BsonObjectId(id)), null, null, null, null);
+        return new ChangeStreamEvent<>(raw, Company.class, converter);
+    }
+}
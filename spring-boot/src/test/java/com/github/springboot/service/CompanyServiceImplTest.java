@@ -1,24 +1,49 @@
 package com.github.springboot.service;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
+import javax.validation.Validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.springboot.config.CompanyBulkProperties;
 import com.github.springboot.dto.CompanyDto;
 import com.github.springboot.model.Company;
 import com.github.springboot.repository.CompanyRepository;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,9 +57,18 @@ public class CompanyServiceImplTest {
 
     CompanyServiceImpl.CompanyMapper companyMapper = new CompanyServiceImpl$CompanyMapperImpl();
 
+    Cache<String, CompanyDto> companyCache;
+
+    SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     public void setup() {
-        companyService = new CompanyServiceImpl(companyRepository, companyMapper);
+        companyCache = Caffeine.newBuilder().build();
+        meterRegistry = new SimpleMeterRegistry();
+        CompanyBulkProperties companyBulkProperties = new CompanyBulkProperties();
+        companyBulkProperties.setChunkSize(2);
+        companyService = new CompanyServiceImpl(companyRepository, companyMapper, new CompanyCache(companyCache),
+            Validation.buildDefaultValidatorFactory().getValidator(), companyBulkProperties, meterRegistry, new SingleFlight(meterRegistry), new ObjectMapper());
     }
 
     @Test
@@ -48,6 +82,94 @@ public class CompanyServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenCallSaveAllShouldInsertValidCompaniesInChunksAndReturnResultPerCompany() {
+        when(companyRepository.insertAllUnordered(any()))
+            .thenReturn(Mono.just(Collections.emptyList()))
+            .thenReturn(Mono.just(Collections.singletonList(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0))));
+
+        Flux<CompanyDto> companies = Flux.just(CompanyDto.builder().name("Test").build(),
+            CompanyDto.builder().build(),
+            CompanyDto.builder().name("Test 2").build(),
+            CompanyDto.builder().name("Test 3").build());
+
+        StepVerifier.create(companyService.saveAll(companies, "me"))
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isZero();
+                assertThat(r.getStatus()).isEqualTo(201);
+                assertThat(r.getId()).isNotBlank();
+            })
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isEqualTo(1);
+                assertThat(r.getStatus()).isEqualTo(400);
+                assertThat(r.getMessage()).startsWith("name");
+            })
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isEqualTo(2);
+                assertThat(r.getStatus()).isEqualTo(409);
+                assertThat(r.getId()).isNull();
+            })
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isEqualTo(3);
+                assertThat(r.getStatus()).isEqualTo(201);
+            })
+            .verifyComplete();
+
+        ArgumentCaptor<List<Company>> captor = ArgumentCaptor.forClass(List.class);
+        verify(companyRepository, times(2)).insertAllUnordered(captor.capture());
+        assertThat(captor.getAllValues().get(0)).extracting(Company::getName).containsExactly("Test");
+        assertThat(captor.getAllValues().get(1)).extracting(Company::getName).containsExactly("Test 2", "Test 3");
+        assertThat(captor.getAllValues().get(1)).allSatisfy(c -> {
+            assertThat(c.getCreatedByUser()).isEqualTo("me");
+            assertThat(c.getActivated()).isTrue();
+        });
+        assertThat(meterRegistry.get("companies.bulk.items").tag("status", "201").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("companies.bulk.chunk").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenCallImportAllShouldRejectMalformedLinesAndInsertTheRest() {
+        when(companyRepository.insertAllUnordered(any())).thenReturn(Mono.just(Collections.emptyList()));
+
+        Flux<String> lines = Flux.just("{\"name\":\"Test\"}", "{\"name\":", "", "{\"name\":\"Test 2\"}");
+
+        StepVerifier.create(companyService.importAll(lines, "me"))
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isZero();
+                assertThat(r.getStatus()).isEqualTo(201);
+            })
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isEqualTo(1);
+                assertThat(r.getStatus()).isEqualTo(400);
+                assertThat(r.getMessage()).isNotBlank();
+            })
+            .assertNext(r -> {
+                assertThat(r.getIndex()).isEqualTo(2);
+                assertThat(r.getStatus()).isEqualTo(201);
+            })
+            .verifyComplete();
+
+        ArgumentCaptor<List<Company>> captor = ArgumentCaptor.forClass(List.class);
+        verify(companyRepository, times(2)).insertAllUnordered(captor.capture());
+        assertThat(captor.getAllValues().get(0)).extracting(Company::getName).containsExactly("Test");
+        assertThat(captor.getAllValues().get(1)).extracting(Company::getName).containsExactly("Test 2");
+    }
+
+    @Test
+    public void whenCallExportShouldMapProjectedDocumentsToRows() {
+        ObjectId id = new ObjectId();
+        Date createdDate = new Date();
+        when(companyRepository.findAllProjected(Arrays.asList("_id", "name", "createdDate"), 100))
+            .thenReturn(Flux.just(new Document("_id", id).append("name", "Test").append("createdDate", createdDate)));
+
+        StepVerifier.create(companyService.export(Arrays.asList("id", "name", "createdDate"), 100))
+            .assertNext(r -> assertThat(r).containsExactly(entry("id", id.toHexString()), entry("name", "Test"),
+                entry("createdDate", createdDate.toInstant().toString())))
+            .verifyComplete();
+    }
+
     @Test
     public void whenCallFindByIdShouldFindCompany() {
         Mono<Company> company = Mono.just(new Company());
@@ -58,26 +180,192 @@ public class CompanyServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    public void whenCallFindByIdTwiceShouldReadFromCache() {
+        when(companyRepository.findById(anyString())).thenReturn(Mono.just(Company.builder().id("123").name("Test").build()));
+
+        StepVerifier.create(companyService.findById("123"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(companyService.findById("123"))
+                .assertNext(c -> assertThat(c.getName()).isEqualTo("Test"))
+                .verifyComplete();
+
+        verify(companyRepository, times(1)).findById("123");
+    }
+
+    @Test
+    public void whenCallFindByIdConcurrentlyShouldReadOnce() {
+        TestPublisher<Company> company = TestPublisher.create();
+        when(companyRepository.findById(anyString())).thenReturn(company.mono());
+
+        StepVerifier first = StepVerifier.create(companyService.findById("123"))
+                .assertNext(c -> assertThat(c.getName()).isEqualTo("Test"))
+                .expectComplete()
+                .verifyLater();
+        StepVerifier second = StepVerifier.create(companyService.findById("123"))
+                .assertNext(c -> assertThat(c.getName()).isEqualTo("Test"))
+                .expectComplete()
+                .verifyLater();
+        company.emit(Company.builder().id("123").name("Test").build());
+
+        first.verify();
+        second.verify();
+        verify(companyRepository, times(1)).findById("123");
+        assertThat(meterRegistry.get(SingleFlight.REQUESTS_METRIC).tag("coalesced", "true").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenCompanyChangesWhileReadShouldNotCacheTheReadCompany() {
+        TestPublisher<Company> company = TestPublisher.create();
+        when(companyRepository.findById(anyString())).thenReturn(company.mono());
+        when(companyRepository.deleteById(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier read = StepVerifier.create(companyService.findById("123"))
+                .assertNext(c -> assertThat(c.getName()).isEqualTo("Test"))
+                .expectComplete()
+                .verifyLater();
+        StepVerifier.create(companyService.deleteById("123"))
+                .verifyComplete();
+        company.emit(Company.builder().id("123").name("Test").build());
+
+        read.verify();
+        assertThat(companyCache.getIfPresent("123")).isNull();
+    }
+
+    @Test
+    public void whenCallSaveOrDeleteShouldInvalidateCache() {
+        companyCache.put("123", CompanyDto.builder().id("123").build());
+        companyCache.put("456", CompanyDto.builder().id("456").build());
+        when(companyRepository.save(any())).thenReturn(Mono.just(Company.builder().id("123").build()));
+        when(companyRepository.deleteById(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(companyService.save(CompanyDto.builder().id("123").build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(companyCache.getIfPresent("123")).isNull();
+
+        StepVerifier.create(companyService.deleteById("456"))
+                .verifyComplete();
+
+        assertThat(companyCache.getIfPresent("456")).isNull();
+    }
+
     @Test
     public void whenCallFindAllActiveCompaniesShouldReturnListOfCompanies() {
         when(companyRepository.findActiveCompanies(any(Pageable.class))).thenReturn(Flux.fromIterable(Arrays.asList(new Company(), new Company(), new Company())));
 
-        Flux<CompanyDto> companies = companyService.findAllActiveCompanies(10);
+        Flux<CompanyDto> companies = companyService.findAllActiveCompanies(null, 10);
 
         assertThat(companies.count().block()).isEqualTo(3);
     }
 
+    @Test
+    public void whenCallFindAllActiveCompaniesWithCursorShouldSeekAfterLastId() {
+        ObjectId after = new ObjectId();
+        when(companyRepository.findActiveCompaniesAfter(any(ObjectId.class), any(Pageable.class))).thenReturn(Flux.just(new Company()));
+
+        Flux<CompanyDto> companies = companyService.findAllActiveCompanies(after.toHexString(), 10);
+
+        assertThat(companies.count().block()).isEqualTo(1);
+        verify(companyRepository).findActiveCompaniesAfter(after, PageRequest.of(0, 10));
+    }
+
     @Test
     public void whenCallFindCompaniesByUserShouldReturnListOfCompanies() {
         when(companyRepository.findActiveCompaniesByUser(anyString(), any(Pageable.class))).thenReturn(Flux.fromIterable(Arrays.asList(new Company(), new Company())));
 
-        Flux<CompanyDto> companies = companyService.findActiveCompaniesByUser("me", 10);
+        Flux<CompanyDto> companies = companyService.findActiveCompaniesByUser("me", null, 10);
 
         assertThat(companies.count().block()).isEqualTo(2);
     }
 
+    @Test
+    public void whenCallFindCompaniesByUserWithCursorShouldSeekAfterLastId() {
+        ObjectId after = new ObjectId();
+        when(companyRepository.findActiveCompaniesByUserAfter(anyString(), any(ObjectId.class), any(Pageable.class))).thenReturn(Flux.just(new Company()));
+
+        Flux<CompanyDto> companies = companyService.findActiveCompaniesByUser("me", after.toHexString(), 10);
+
+        assertThat(companies.count().block()).isEqualTo(1);
+        verify(companyRepository).findActiveCompaniesByUserAfter("me", after, PageRequest.of(0, 10));
+    }
+
+    @Test
+    public void whenCallUpdateShouldFilterByOwnerAndInvalidateCache() {
+        companyCache.put("123", CompanyDto.builder().id("123").build());
+        when(companyRepository.findAndModifyByIdAndOwner(anyString(), anyString(), any(Update.class)))
+            .thenReturn(Mono.just(Company.builder().id("123").name("New Name").lastModifiedByUser("me").build()));
+
+        StepVerifier.create(companyService.update("123", CompanyDto.builder().name("New Name").activated(false).build(), "me", false))
+            .assertNext(c -> assertThat(c.getLastModifiedByUser()).isEqualTo("me"))
+            .verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(companyRepository).findAndModifyByIdAndOwner(eq("123"), eq("me"), update.capture());
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+            .containsEntry("name", "New Name")
+            .containsEntry("lastModifiedByUser", "me")
+            .containsEntry("activated", false);
+        verify(companyRepository, never()).existsById(anyString());
+        assertThat(companyCache.getIfPresent("123")).isNull();
+    }
+
+    @Test
+    public void whenCallUpdateAsAdminShouldNotFilterByOwner() {
+        when(companyRepository.findAndModifyByIdAndOwner(anyString(), isNull(), any(Update.class)))
+            .thenReturn(Mono.just(Company.builder().id("123").build()));
+
+        StepVerifier.create(companyService.update("123", CompanyDto.builder().name("New Name").build(), "admin", true))
+            .expectNextCount(1)
+            .verifyComplete();
+    }
+
+    @Test
+    public void whenUpdateDoesNotMatchShouldTellNotFoundFromForbidden() {
+        when(companyRepository.findAndModifyByIdAndOwner(anyString(), anyString(), any(Update.class))).thenReturn(Mono.empty());
+        when(companyRepository.existsById("123")).thenReturn(Mono.just(true));
+        when(companyRepository.existsById("456")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(companyService.update("123", CompanyDto.builder().name("New Name").build(), "me", false))
+            .expectErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatus()).isEqualTo(HttpStatus.FORBIDDEN))
+            .verify();
+
+        StepVerifier.create(companyService.update("456", CompanyDto.builder().name("New Name").build(), "me", false))
+            .expectErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatus()).isEqualTo(HttpStatus.NOT_FOUND))
+            .verify();
+    }
+
+    @Test
+    public void whenCallDeleteShouldFilterByOwnerAndTellNotFoundFromForbidden() {
+        companyCache.put("123", CompanyDto.builder().id("123").build());
+        when(companyRepository.deleteByIdAndOwner("123", "me")).thenReturn(Mono.just(true));
+        when(companyRepository.deleteByIdAndOwner("456", "me")).thenReturn(Mono.just(false));
+        when(companyRepository.deleteByIdAndOwner("789", "me")).thenReturn(Mono.just(false));
+        when(companyRepository.existsById("456")).thenReturn(Mono.just(true));
+        when(companyRepository.existsById("789")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(companyService.delete("123", "me", false))
+            .verifyComplete();
+        assertThat(companyCache.getIfPresent("123")).isNull();
+
+        StepVerifier.create(companyService.delete("456", "me", false))
+            .expectErrorSatisfies(e -> assertThat(e)
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("User(me) does not have access to delete this resource"))
+            .verify();
+
+        StepVerifier.create(companyService.delete("789", "me", false))
+            .expectErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatus()).isEqualTo(HttpStatus.NOT_FOUND))
+            .verify();
+    }
+
     @Test
     public void whenCallDeleteByIdShouldDeleteCompany() {
+        when(companyRepository.deleteById(anyString())).thenReturn(Mono.empty());
+
         companyService.deleteById("123");
 
         verify(companyRepository).deleteById("123");
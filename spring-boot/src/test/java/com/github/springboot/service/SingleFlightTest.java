@@ -0,0 +1,121 @@
+package com.github.springboot.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.springboot.config.RequestDeadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    public void whenSameKeyIsInFlightShouldShareTheRead() {
+        TestPublisher<String> read = TestPublisher.create();
+
+        StepVerifier first = StepVerifier.create(singleFlight.flux("find", "key", () -> count(read.flux())))
+            .expectNext("a", "b")
+            .expectComplete()
+            .verifyLater();
+        read.next("a");
+        StepVerifier late = StepVerifier.create(singleFlight.flux("find", "key", () -> count(read.flux())))
+            .expectNext("a", "b")
+            .expectComplete()
+            .verifyLater();
+        read.emit("b");
+
+        first.verify();
+        late.verify();
+        assertThat(reads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get(SingleFlight.REQUESTS_METRIC).tag("coalesced", "false").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(SingleFlight.REQUESTS_METRIC).tag("coalesced", "true").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenKeyIsDifferentShouldNotShareTheRead() {
+        TestPublisher<String> read = TestPublisher.create();
+
+        singleFlight.flux("find", "key", () -> count(read.flux())).subscribe();
+        singleFlight.flux("find", "other", () -> count(read.flux())).subscribe();
+        singleFlight.flux("count", "key", () -> count(read.flux())).subscribe();
+
+        assertThat(reads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenReadIsFinishedShouldReadAgain() {
+        StepVerifier.create(singleFlight.mono("find", "key", () -> count(Mono.just("a"))))
+            .expectNext("a")
+            .verifyComplete();
+        StepVerifier.create(singleFlight.mono("find", "key", () -> count(Mono.<String>error(new IllegalStateException()))))
+            .verifyError(IllegalStateException.class);
+        StepVerifier.create(singleFlight.mono("find", "key", () -> count(Mono.just("b"))))
+            .expectNext("b")
+            .verifyComplete();
+
+        assertThat(reads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenEveryCallerIsGoneShouldCancelTheRead() {
+        TestPublisher<String> read = TestPublisher.create();
+
+        Disposable first = singleFlight.flux("find", "key", () -> count(read.flux())).subscribe();
+        Disposable second = singleFlight.flux("find", "key", () -> count(read.flux())).subscribe();
+        first.dispose();
+
+        read.assertNotCancelled();
+
+        second.dispose();
+
+        read.assertCancelled();
+        singleFlight.flux("find", "key", () -> count(Flux.just("a"))).blockLast();
+        assertThat(reads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenCallerHasALaterDeadlineShouldNotShareTheRead() {
+        TestPublisher<String> read = TestPublisher.create();
+        RequestDeadline early = RequestDeadline.after(Duration.ofSeconds(1));
+        RequestDeadline late = RequestDeadline.after(Duration.ofSeconds(10));
+        List<RequestDeadline> readDeadlines = new ArrayList<>();
+
+        singleFlight.flux("find", "key", () -> count(deadlineOf(read.flux(), readDeadlines))).subscriberContext(early::addTo).subscribe();
+        singleFlight.flux("find", "key", () -> count(deadlineOf(read.flux(), readDeadlines))).subscriberContext(late::addTo).subscribe();
+        singleFlight.flux("find", "key", () -> count(deadlineOf(read.flux(), readDeadlines))).subscriberContext(early::addTo).subscribe();
+        singleFlight.flux("find", "key", () -> count(deadlineOf(read.flux(), readDeadlines))).subscribe();
+
+        assertThat(reads.get()).isEqualTo(3);
+        assertThat(readDeadlines).containsExactly(early, late, null);
+        assertThat(meterRegistry.get(SingleFlight.REQUESTS_METRIC).tag("coalesced", "true").counter().count()).isEqualTo(1);
+    }
+
+    private <T> Flux<T> deadlineOf(Flux<T> read, List<RequestDeadline> deadlines) {
+        return Mono.subscriberContext()
+            .doOnNext(c -> deadlines.add(RequestDeadline.from(c).orElse(null)))
+            .thenMany(read);
+    }
+
+    private <T> Flux<T> count(Flux<T> read) {
+        return read.doOnSubscribe(s -> reads.incrementAndGet());
+    }
+
+    private <T> Mono<T> count(Mono<T> read) {
+        return read.doOnSubscribe(s -> reads.incrementAndGet());
+    }
+}
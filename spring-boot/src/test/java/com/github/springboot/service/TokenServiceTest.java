@@ -0,0 +1,61 @@
+package com.github.springboot.service;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.github.springboot.config.JwtConfigurationProperties;
+import com.github.springboot.dto.AuthorizationDto;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenServiceTest {
+    KeyPair keyPair;
+
+    TokenService tokenService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(2048);
+        keyPair = kpg.generateKeyPair();
+        tokenService = new TokenService(keyPair, new JwtConfigurationProperties());
+    }
+
+    @Test
+    public void whenCallCreateTokenConcurrentlyShouldSignEveryTokenForItsUser() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = IntStream.range(0, 200)
+                .mapToObj(i -> (Callable<String>) () -> tokenService.createToken(new AuthorizationDto("user" + i, new String[] {"ROLE_ADMIN"})))
+                .collect(Collectors.toList());
+            List<Future<String>> tokens = executorService.invokeAll(tasks);
+
+            RSASSAVerifier verifier = new RSASSAVerifier((RSAPublicKey) keyPair.getPublic());
+            for (int i = 0; i < tokens.size(); i++) {
+                SignedJWT signedJWT = SignedJWT.parse(tokens.get(i).get());
+                assertThat(signedJWT.verify(verifier)).isTrue();
+                assertThat(signedJWT.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.RS256);
+                assertThat(signedJWT.getHeader().getKeyID()).isEqualTo(TokenService.KEY_ID);
+                assertThat(signedJWT.getHeader().getType()).isEqualTo(JOSEObjectType.JWT);
+                assertThat(signedJWT.getJWTClaimsSet().getSubject()).isEqualTo("user" + i);
+                assertThat(signedJWT.getJWTClaimsSet().getExpirationTime()).isAfter(signedJWT.getJWTClaimsSet().getIssueTime());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}